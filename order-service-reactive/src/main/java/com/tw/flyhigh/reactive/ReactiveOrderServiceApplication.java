@@ -0,0 +1,17 @@
+package com.tw.flyhigh.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+/**
+ * 响应式订单服务：WebFlux + R2DBC，与 order-service 共用数据库，提供只读为主的 /v2/orders 接口。
+ * 写操作仍由 order-service 负责。
+ */
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class ReactiveOrderServiceApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveOrderServiceApplication.class, args);
+    }
+}
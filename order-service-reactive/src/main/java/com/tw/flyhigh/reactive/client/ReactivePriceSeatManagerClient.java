@@ -0,0 +1,54 @@
+package com.tw.flyhigh.reactive.client;
+
+import com.tw.flyhigh.common.exception.ReserveException;
+import com.tw.flyhigh.common.exception.SeatServiceUnavailableException;
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.reactive.config.PriceSeatManagerWebClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * price-seat-manager 的响应式客户端，v2 只读，目前只提供航班详情查询。
+ * 超时、网络异常和 5xx 以 SeatServiceUnavailableException 结束，4xx 以 ReserveException 结束
+ */
+@Slf4j
+@Component
+public class ReactivePriceSeatManagerClient {
+    private final WebClient webClient;
+    private final PriceSeatManagerWebClientProperties properties;
+
+    public ReactivePriceSeatManagerClient(WebClient priceSeatManagerWebClient, PriceSeatManagerWebClientProperties properties) {
+        this.webClient = priceSeatManagerWebClient;
+        this.properties = properties;
+    }
+
+    public Mono<FlightDetail> getFlightDetail(String flight) {
+        return call("getFlightDetail", webClient.get()
+                                                .uri("/{flight}", flight)
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .exchange()
+                                                .flatMap(response -> read(response, FlightDetail.class)));
+    }
+
+    private <T> Mono<T> call(String method, Mono<T> request) {
+        return request.timeout(properties.getReadTimeout())
+                      .onErrorMap(e -> !(e instanceof ReserveException || e instanceof SeatServiceUnavailableException), e -> {
+                          log.warn("price-seat-manager {} failed: {}", method, e.toString());
+                          return new SeatServiceUnavailableException("price-seat-manager " + method + " failed: " + e);
+                      });
+    }
+
+    private static <T> Mono<T> read(ClientResponse response, Class<T> type) {
+        if (response.statusCode().is5xxServerError()) {
+            return response.releaseBody().then(Mono.error(new SeatServiceUnavailableException("price-seat-manager returned " + response.rawStatusCode())));
+        }
+        if (response.statusCode().isError()) {
+            return response.releaseBody().then(Mono.error(new ReserveException("price-seat-manager returned " + response.rawStatusCode())));
+        }
+        return response.bodyToMono(type);
+    }
+}
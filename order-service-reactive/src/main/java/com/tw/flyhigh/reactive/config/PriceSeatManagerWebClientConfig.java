@@ -0,0 +1,34 @@
+package com.tw.flyhigh.reactive.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * price-seat-manager 的 WebClient：Reactor Netty 连接池，等待响应时不占用线程
+ */
+@Configuration
+public class PriceSeatManagerWebClientConfig {
+    private static final String POOL_NAME = "price-seat-manager";
+
+    @Bean
+    public WebClient priceSeatManagerWebClient(@Value("${third.price-seat-manager.url}") String url, PriceSeatManagerWebClientProperties properties,
+                                               WebClient.Builder builder) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(POOL_NAME)
+                                                                  .maxConnections(properties.getMaxConnections())
+                                                                  .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                                                                  .maxIdleTime(properties.getMaxIdleTime())
+                                                                  .build();
+        // 读取超时在 ReactivePriceSeatManagerClient 中按请求设置，池中空闲的连接不受影响
+        HttpClient httpClient = HttpClient.create(connectionProvider).tcpConfiguration(tcpClient -> tcpClient
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis()));
+        return builder.baseUrl(url + "/seats")
+                      .clientConnector(new ReactorClientHttpConnector(httpClient))
+                      .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.tw.flyhigh.reactive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "third.price-seat-manager.web-client")
+public class PriceSeatManagerWebClientProperties {
+    /**
+     * 连往 price-seat-manager 的最大连接数，连接不与线程绑定，可以远大于线程数
+     */
+    private int maxConnections = 500;
+    /**
+     * 连接池满时等待空闲连接的时间
+     */
+    private Duration pendingAcquireTimeout = Duration.ofMillis(500);
+    /**
+     * 空闲超过该时间的连接被关闭，应小于服务端的 keep-alive 超时
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(3);
+}
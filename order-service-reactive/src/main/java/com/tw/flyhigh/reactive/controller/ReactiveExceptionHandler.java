@@ -0,0 +1,47 @@
+package com.tw.flyhigh.reactive.controller;
+
+import com.tw.flyhigh.common.ExceptionBody;
+import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.common.exception.ParamException;
+import com.tw.flyhigh.common.exception.ReserveException;
+import com.tw.flyhigh.common.exception.SeatServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 与 ExceptionHandlerAdvice 相同的错误码和响应体，覆盖 v2 接口会抛出的异常
+ */
+@RestControllerAdvice
+@Slf4j
+public class ReactiveExceptionHandler {
+    MediaType jsonUtf8 = new MediaType("application", "json", StandardCharsets.UTF_8);
+
+    @ExceptionHandler(ParamException.class)
+    public ResponseEntity<ExceptionBody> handle(ParamException exception) {
+        log.error(exception.getMessage());
+        return ResponseEntity.badRequest()
+            .contentType(jsonUtf8)
+            .body(new ExceptionBody(exception.getErrorCode().getValue(), exception.getMessage()));
+    }
+
+    @ExceptionHandler(ReserveException.class)
+    public ResponseEntity<ExceptionBody> handle(ReserveException exception) {
+        log.error(exception.getMessage());
+        return ResponseEntity.badRequest()
+            .contentType(jsonUtf8)
+            .body(new ExceptionBody(ErrorCode.CRESERVE_EXCEPTION.getValue(), exception.getMessage()));
+    }
+
+    @ExceptionHandler(SeatServiceUnavailableException.class)
+    public ResponseEntity<ExceptionBody> handle(SeatServiceUnavailableException exception) {
+        log.warn(exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(jsonUtf8)
+            .body(new ExceptionBody(exception.getErrorCode().getValue(), "座位服务暂不可用，请稍后再试"));
+    }
+}
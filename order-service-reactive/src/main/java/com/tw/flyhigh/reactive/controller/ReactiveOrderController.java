@@ -0,0 +1,50 @@
+package com.tw.flyhigh.reactive.controller;
+
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.reactive.service.ReactiveOrderService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * /v2/orders 只读接口，返回格式与 /v1/orders 一致；下单、取消等写操作仍走 v1
+ */
+@RestController
+@RequestMapping("/v2/orders")
+public class ReactiveOrderController {
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private final ReactiveOrderService orderService;
+
+    public ReactiveOrderController(ReactiveOrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    /**
+     * 游标分页查询用户订单，下一页游标通过 X-Next-Cursor 响应头返回
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<Order>>> getOrders(@RequestParam("userId") Long userId,
+                                                       @RequestParam(value = "cursor", required = false) String cursor,
+                                                       @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return orderService.getOrders(userId, cursor, limit).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR, page.getNextCursor());
+            }
+            return response.body(page.getOrders());
+        });
+    }
+
+    @GetMapping("/flights/{flight}")
+    public Mono<FlightDetail> getFlightDetail(@PathVariable("flight") String flight) {
+        return orderService.getFlightDetail(flight);
+    }
+}
@@ -0,0 +1,121 @@
+package com.tw.flyhigh.reactive.repository;
+
+import com.tw.flyhigh.common.util.OrderCursor;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
+import io.r2dbc.spi.Row;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 与 OrderQueryRepository 相同的只读查询，基于 R2DBC：一页订单固定三条 SQL（订单、乘客、订单事件），
+ * 等待数据库时不占用线程
+ */
+@Repository
+public class ReactiveOrderQueryRepository {
+    private static final String ORDER_COLUMNS = "select id, user_id, flight, class_type, contact_mobile, contact_name, status, created_at"
+        + " from ticket_order where user_id = :userId";
+    private static final String AFTER_CURSOR = " and (created_at < :createdAt or (created_at = :createdAt and id < :id))";
+    private static final String ORDER_BY = " order by created_at desc, id desc limit :limit";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveOrderQueryRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * 按 (createdAt, id) 倒序查询 after 之后的一页订单，多取一条用于判断是否还有下一页
+     */
+    public Mono<OrderPage> findPage(Long userId, OrderCursor after, int limit) {
+        DatabaseClient.GenericExecuteSpec query = databaseClient.execute(ORDER_COLUMNS + (after == null ? "" : AFTER_CURSOR) + ORDER_BY)
+                                                                .bind("userId", userId)
+                                                                .bind("limit", limit + 1);
+        if (after != null) {
+            query = query.bind("createdAt", after.getCreatedAt()).bind("id", after.getId());
+        }
+        return query.map((row, metadata) -> toOrder(row))
+                    .all()
+                    .collectList()
+                    .flatMap(orders -> {
+                        String nextCursor = null;
+                        if (orders.size() > limit) {
+                            orders = new ArrayList<>(orders.subList(0, limit));
+                            Order last = orders.get(limit - 1);
+                            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+                        }
+                        OrderPage page = OrderPage.builder().orders(orders).nextCursor(nextCursor).build();
+                        return orders.isEmpty() ? Mono.just(page) : fillDetails(orders).thenReturn(page);
+                    });
+    }
+
+    private Mono<Void> fillDetails(List<Order> orders) {
+        Map<Long, Order> ordersById = orders.stream().collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        Mono<Void> passengers = databaseClient.execute("select ticket_order_id, id, name, age_type, identification_number, mobile, price,"
+                                                           + " baggage_weight, insurance_id, insurance_name, insurance_price"
+                                                           + " from passenger where ticket_order_id in (:orderIds) order by id")
+                                              .bind("orderIds", ordersById.keySet())
+                                              .map((row, metadata) -> new SimpleImmutableEntry<>(row.get("ticket_order_id", Long.class), toPassenger(row)))
+                                              .all()
+                                              .doOnNext(passenger -> ordersById.get(passenger.getKey()).getPassengerList().add(passenger.getValue()))
+                                              .then();
+
+        Mono<Void> events = databaseClient.execute("select ticket_order_id, id, status, created_at"
+                                                       + " from ticket_order_event where ticket_order_id in (:orderIds) order by created_at desc")
+                                          .bind("orderIds", ordersById.keySet())
+                                          .map((row, metadata) -> new SimpleImmutableEntry<>(row.get("ticket_order_id", Long.class), toOrderEvent(row)))
+                                          .all()
+                                          .doOnNext(event -> ordersById.get(event.getKey()).getOrderEventList().add(event.getValue()))
+                                          .then();
+
+        return passengers.then(events);
+    }
+
+    private Order toOrder(Row row) {
+        return Order.builder()
+                    .id(row.get("id", Long.class))
+                    .userId(row.get("user_id", Long.class))
+                    .flight(row.get("flight", String.class))
+                    .classType(row.get("class_type", String.class))
+                    .contactMobile(row.get("contact_mobile", String.class))
+                    .contactName(row.get("contact_name", String.class))
+                    .status(row.get("status", String.class))
+                    .createdAt(row.get("created_at", LocalDateTime.class))
+                    .passengerList(new ArrayList<>())
+                    .orderEventList(new ArrayList<>())
+                    .build();
+    }
+
+    private Order.Passenger toPassenger(Row row) {
+        return Order.Passenger.builder()
+                              .id(row.get("id", Long.class))
+                              .name(row.get("name", String.class))
+                              .ageType(row.get("age_type", String.class))
+                              .identificationNumber(row.get("identification_number", String.class))
+                              .mobile(row.get("mobile", String.class))
+                              .price(row.get("price", Integer.class))
+                              .baggageWeight(row.get("baggage_weight", Integer.class))
+                              .insuranceId(row.get("insurance_id", String.class))
+                              .insuranceName(row.get("insurance_name", String.class))
+                              .insurancePrice(row.get("insurance_price", Integer.class))
+                              .build();
+    }
+
+    private Order.OrderEvent toOrderEvent(Row row) {
+        return Order.OrderEvent.builder()
+                               .id(row.get("id", Long.class))
+                               .status(row.get("status", String.class))
+                               .createdAt(row.get("created_at", LocalDateTime.class))
+                               .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.tw.flyhigh.reactive.service;
+
+import com.tw.flyhigh.common.util.OrderCursor;
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.dto.OrderPage;
+import com.tw.flyhigh.reactive.client.ReactivePriceSeatManagerClient;
+import com.tw.flyhigh.reactive.repository.ReactiveOrderQueryRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveOrderService {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ReactiveOrderQueryRepository orderQueryRepository;
+    private final ReactivePriceSeatManagerClient priceSeatManagerClient;
+
+    public ReactiveOrderService(ReactiveOrderQueryRepository orderQueryRepository, ReactivePriceSeatManagerClient priceSeatManagerClient) {
+        this.orderQueryRepository = orderQueryRepository;
+        this.priceSeatManagerClient = priceSeatManagerClient;
+    }
+
+    /**
+     * 与 v1 getOrders 相同的分页规则：每页 1 到 100 条，游标不合法时以 ParamException 结束
+     */
+    public Mono<OrderPage> getOrders(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return Mono.defer(() -> orderQueryRepository.findPage(userId, cursor == null ? null : OrderCursor.decode(cursor), pageSize));
+    }
+
+    public Mono<FlightDetail> getFlightDetail(String flight) {
+        return priceSeatManagerClient.getFlightDetail(flight);
+    }
+}
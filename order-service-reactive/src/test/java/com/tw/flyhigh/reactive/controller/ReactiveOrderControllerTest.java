@@ -0,0 +1,68 @@
+package com.tw.flyhigh.reactive.controller;
+
+import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.common.exception.ParamException;
+import com.tw.flyhigh.common.exception.SeatServiceUnavailableException;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
+import com.tw.flyhigh.reactive.service.ReactiveOrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class ReactiveOrderControllerTest {
+    private ReactiveOrderService orderService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(ReactiveOrderService.class);
+        webTestClient = WebTestClient.bindToController(new ReactiveOrderController(orderService))
+                                     .controllerAdvice(new ReactiveExceptionHandler())
+                                     .build();
+    }
+
+    @Test
+    public void should_return_orders_with_next_cursor_header() {
+        Order order = Order.builder().id(1L).userId(456L).flight("MU2151").build();
+        given(orderService.getOrders(456L, null, 20))
+            .willReturn(Mono.just(OrderPage.builder().orders(Collections.singletonList(order)).nextCursor("next").build()));
+
+        webTestClient.get().uri("/v2/orders?userId=456")
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectHeader().valueEquals("X-Next-Cursor", "next")
+                     .expectBody()
+                     .jsonPath("$[0].flight").isEqualTo("MU2151");
+    }
+
+    @Test
+    public void should_return_400_when_cursor_is_invalid() {
+        given(orderService.getOrders(456L, "bad", 20))
+            .willReturn(Mono.error(new ParamException(ErrorCode.INVALID_PARAMETER, "invalid cursor")));
+
+        webTestClient.get().uri("/v2/orders?userId=456&cursor=bad")
+                     .exchange()
+                     .expectStatus().isBadRequest()
+                     .expectBody()
+                     .jsonPath("$.code").isEqualTo(ErrorCode.INVALID_PARAMETER.getValue());
+    }
+
+    @Test
+    public void should_return_503_when_seat_service_is_unavailable() {
+        given(orderService.getFlightDetail("MU2151"))
+            .willReturn(Mono.error(new SeatServiceUnavailableException("price-seat-manager returned 503")));
+
+        webTestClient.get().uri("/v2/orders/flights/MU2151")
+                     .exchange()
+                     .expectStatus().isEqualTo(503)
+                     .expectBody()
+                     .jsonPath("$.code").isEqualTo(ErrorCode.SEAT_SERVICE_UNAVAILABLE.getValue());
+    }
+}
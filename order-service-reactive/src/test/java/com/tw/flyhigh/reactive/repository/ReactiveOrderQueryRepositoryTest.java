@@ -0,0 +1,86 @@
+package com.tw.flyhigh.reactive.repository;
+
+import com.tw.flyhigh.common.util.OrderCursor;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+class ReactiveOrderQueryRepositoryTest {
+    private DatabaseClient databaseClient;
+    private ReactiveOrderQueryRepository orderQueryRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        databaseClient = DatabaseClient.create(H2ConnectionFactory.inMemory(UUID.randomUUID().toString()));
+        orderQueryRepository = new ReactiveOrderQueryRepository(databaseClient);
+
+        String schema = StreamUtils.copyToString(new ClassPathResource("sql/schema.sql").getInputStream(), StandardCharsets.UTF_8);
+        for (String statement : schema.split(";")) {
+            if (!statement.trim().isEmpty()) {
+                databaseClient.execute(statement).then().block();
+            }
+        }
+        LocalDateTime createdAt = LocalDateTime.of(2021, 1, 1, 10, 0);
+        for (long id = 1; id <= 3; id++) {
+            execute("insert into ticket_order (id, user_id, flight, class_type, contact_mobile, contact_name, status, created_at)"
+                        + " values (" + id + ", 456, 'MU215" + id + "', 'FIRST', '13888888888', '张三', 'CREATED', :createdAt)", createdAt.plusMinutes(id));
+            execute("insert into passenger (ticket_order_id, name, identification_number, age_type, price)"
+                        + " values (" + id + ", '李四', '610502200001015432', '老人', 1000)", null);
+            execute("insert into passenger (ticket_order_id, name, identification_number, age_type, price)"
+                        + " values (" + id + ", '王五', '610502200001015433', '成人', 1000)", null);
+            execute("insert into ticket_order_event (ticket_order_id, status, created_at) values (" + id + ", 'CREATED', :createdAt)",
+                    createdAt.plusMinutes(id));
+        }
+    }
+
+    private void execute(String sql, LocalDateTime createdAt) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.execute(sql);
+        if (createdAt != null) {
+            spec = spec.bind("createdAt", createdAt);
+        }
+        spec.then().block();
+    }
+
+    @Test
+    public void should_load_page_with_passengers_and_events() {
+        OrderPage page = orderQueryRepository.findPage(456L, null, 2).block();
+
+        Assertions.assertEquals(2, page.getOrders().size());
+        Assertions.assertNotNull(page.getNextCursor());
+        Order first = page.getOrders().get(0);
+        Assertions.assertEquals("MU2153", first.getFlight());
+        Assertions.assertEquals(2, first.getPassengerList().size());
+        Assertions.assertEquals("李四", first.getPassengerList().get(0).getName());
+        Assertions.assertEquals("CREATED", first.getOrderEventList().get(0).getStatus());
+    }
+
+    @Test
+    public void should_load_next_page_after_cursor() {
+        OrderPage firstPage = orderQueryRepository.findPage(456L, null, 2).block();
+
+        OrderPage secondPage = orderQueryRepository.findPage(456L, OrderCursor.decode(firstPage.getNextCursor()), 2).block();
+
+        Assertions.assertEquals(1, secondPage.getOrders().size());
+        Assertions.assertEquals("MU2151", secondPage.getOrders().get(0).getFlight());
+        Assertions.assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void should_return_empty_page_for_user_without_orders() {
+        OrderPage page = orderQueryRepository.findPage(789L, null, 20).block();
+
+        Assertions.assertTrue(page.getOrders().isEmpty());
+        Assertions.assertNull(page.getNextCursor());
+    }
+}
@@ -0,0 +1,113 @@
+package com.tw.flyhigh.benchmark;
+
+import com.tw.flyhigh.config.MessageBusProperties;
+import com.tw.flyhigh.config.OrderPublisherProperties;
+import com.tw.flyhigh.dto.EncodedMessage;
+import com.tw.flyhigh.integration.mq.OrderEventSender;
+import com.tw.flyhigh.integration.mq.OrderMessageCodec;
+import com.tw.flyhigh.service.impl.AmqpMessageServiceImpl;
+import com.tw.flyhigh.service.impl.RingBufferMessageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对比 outbox relay 一批消息分别经 AMQP 发送方和进程内环形队列投递的吞吐。
+ * AMQP 一侧用本地替身代替 broker：消息不经网络，由单独的线程立即确认，只衡量发送窗口和确认回调的开销；
+ * 环形队列一侧等到消费者处理完整批消息才算完成：
+ * ./gradlew jmh -Pjmh.includes=MessageBusBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MessageBusBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"BLOCKING", "YIELDING"})
+    private MessageBusProperties.WaitStrategy waitStrategy;
+
+    private final AtomicLong consumed = new AtomicLong();
+    private long published;
+    private List<EncodedMessage> batch;
+    private ExecutorService broker;
+    private OrderEventSender orderEventSender;
+    private AmqpMessageServiceImpl amqpMessageService;
+    private RingBufferMessageService ringBufferMessageService;
+
+    @Setup
+    public void setUp() {
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new EncodedMessage(OrderMessageCodec.CONTENT_TYPE_JSON,
+                                         ("{\"id\":" + i + ",\"flight\":\"MU2151\",\"status\":\"CREATED\"}").getBytes(StandardCharsets.UTF_8)));
+        }
+        broker = Executors.newSingleThreadExecutor();
+        orderEventSender = new OrderEventSender(new LocalBrokerTemplate(broker), new OrderPublisherProperties(), new SimpleMeterRegistry());
+        amqpMessageService = new AmqpMessageServiceImpl(orderEventSender);
+
+        MessageBusProperties properties = new MessageBusProperties();
+        properties.setType("ring-buffer");
+        properties.setWaitStrategy(waitStrategy);
+        ringBufferMessageService = new RingBufferMessageService(properties, Collections.singletonList(messages -> consumed.addAndGet(messages.size())),
+                                                                new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        ringBufferMessageService.shutdown();
+        orderEventSender.shutdown();
+        broker.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void amqp() {
+        amqpMessageService.sendMsgs(batch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void ringBuffer() {
+        ringBufferMessageService.sendMsgs(batch);
+        published += BATCH_SIZE;
+        while (consumed.get() < published) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 不连接 broker，发送后在 broker 线程上确认
+     */
+    private static class LocalBrokerTemplate extends RabbitTemplate {
+        private final ExecutorService broker;
+
+        LocalBrokerTemplate(ExecutorService broker) {
+            this.broker = broker;
+        }
+
+        @Override
+        public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+            broker.execute(() -> correlationData.getFuture().set(new CorrelationData.Confirm(true, null)));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.tw.flyhigh.benchmark;
+
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderMessage;
+import com.tw.flyhigh.entity.PassengerEntity;
+import com.tw.flyhigh.entity.TicketOrderEntity;
+import com.tw.flyhigh.entity.TicketOrderEventEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 对比反射拷贝（BeanUtils）与手写映射的每单耗时，分配情况通过 gc profiler 查看：
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderMappingBenchmark {
+    @Param({"1", "5"})
+    private int passengers;
+
+    private TicketOrderEntity ticketOrderEntity;
+
+    @Setup
+    public void setUp() {
+        ticketOrderEntity = new TicketOrderEntity();
+        ticketOrderEntity.setId(1L);
+        ticketOrderEntity.setUserId(100L);
+        ticketOrderEntity.setFlight("MU2151");
+        ticketOrderEntity.setClassType("FIRST");
+        ticketOrderEntity.setContactName("Tom");
+        ticketOrderEntity.setContactMobile("13800000000");
+        ticketOrderEntity.setStatus("CREATED");
+        ticketOrderEntity.setCreatedAt(LocalDateTime.now());
+
+        List<PassengerEntity> passengerEntities = new ArrayList<>();
+        for (int i = 0; i < passengers; i++) {
+            PassengerEntity passengerEntity = new PassengerEntity();
+            passengerEntity.setId((long) i);
+            passengerEntity.setName("passenger" + i);
+            passengerEntity.setAgeType("ADULT");
+            passengerEntity.setIdentificationNumber("11010119900101123" + i);
+            passengerEntity.setMobile("1380000000" + i);
+            passengerEntity.setPrice(1000);
+            passengerEntity.setBaggageWeight(20);
+            passengerEntity.setOrder(ticketOrderEntity);
+            passengerEntities.add(passengerEntity);
+        }
+        ticketOrderEntity.setPassengers(passengerEntities);
+
+        TicketOrderEventEntity orderEventEntity = new TicketOrderEventEntity();
+        orderEventEntity.setId(1L);
+        orderEventEntity.setStatus("CREATED");
+        orderEventEntity.setCreatedAt(LocalDateTime.now());
+        List<TicketOrderEventEntity> events = new ArrayList<>();
+        events.add(orderEventEntity);
+        ticketOrderEntity.setEvents(events);
+    }
+
+    @Benchmark
+    public Order orderReflective() {
+        Order order = new Order();
+        BeanUtils.copyProperties(ticketOrderEntity, order);
+        order.setPassengerList(ticketOrderEntity.getPassengers().stream().map(passengerEntity -> {
+            Order.Passenger passenger = new Order.Passenger();
+            BeanUtils.copyProperties(passengerEntity, passenger);
+            return passenger;
+        }).collect(Collectors.toList()));
+        order.setOrderEventList(ticketOrderEntity.getEvents().stream().map(orderEventEntity -> {
+            Order.OrderEvent orderEvent = new Order.OrderEvent();
+            BeanUtils.copyProperties(orderEventEntity, orderEvent);
+            return orderEvent;
+        }).collect(Collectors.toList()));
+        return order;
+    }
+
+    @Benchmark
+    public Order orderSpecialized() {
+        Order order = Order.from(ticketOrderEntity);
+        order.setPassengerList(Order.transferPassenger(ticketOrderEntity.getPassengers()));
+        order.setOrderEventList(Order.transferOrderEvent(ticketOrderEntity.getEvents()));
+        return order;
+    }
+
+    @Benchmark
+    public OrderMessage messageReflective() {
+        OrderMessage orderMessage = new OrderMessage();
+        BeanUtils.copyProperties(ticketOrderEntity, orderMessage);
+        orderMessage.setPassengerList(ticketOrderEntity.getPassengers().stream().map(passengerEntity -> {
+            OrderMessage.Passenger passenger = new OrderMessage.Passenger();
+            BeanUtils.copyProperties(passengerEntity, passenger);
+            return passenger;
+        }).collect(Collectors.toList()));
+        return orderMessage;
+    }
+
+    @Benchmark
+    public OrderMessage messageSpecialized() {
+        OrderMessage orderMessage = OrderMessage.from(ticketOrderEntity);
+        orderMessage.setPassengerList(OrderMessage.transferPassenger(ticketOrderEntity.getPassengers()));
+        return orderMessage;
+    }
+}
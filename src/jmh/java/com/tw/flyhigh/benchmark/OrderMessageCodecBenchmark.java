@@ -0,0 +1,76 @@
+package com.tw.flyhigh.benchmark;
+
+import com.tw.flyhigh.dto.EncodedMessage;
+import com.tw.flyhigh.dto.OrderMessage;
+import com.tw.flyhigh.integration.mq.OrderMessageCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比 JSON 与 binary 订单消息的编解码吞吐，消息大小在每轮结束时打印：
+ * ./gradlew jmh -Pjmh.includes=OrderMessageCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderMessageCodecBenchmark {
+    @Param({"1", "5"})
+    private int passengers;
+
+    private final OrderMessageCodec jsonCodec = new OrderMessageCodec("json");
+    private final OrderMessageCodec binaryCodec = new OrderMessageCodec("binary");
+    private OrderMessage orderMessage;
+    private EncodedMessage json;
+    private EncodedMessage binary;
+
+    @Setup
+    public void setUp() {
+        List<OrderMessage.Passenger> passengerList = new ArrayList<>();
+        for (int i = 0; i < passengers; i++) {
+            passengerList.add(new OrderMessage.Passenger("passenger" + i, "ADULT", "11010119900101123" + i, "1380000000" + i,
+                                                         1000, 20, "666", "一路顺风", 20));
+        }
+        orderMessage = new OrderMessage(10001L, 100L, passengerList, "MU2151", "FIRST", "13800000000", "张三", "CREATED",
+                                        LocalDateTime.now(), LocalDateTime.now());
+        json = jsonCodec.encode(orderMessage);
+        binary = binaryCodec.encode(orderMessage);
+    }
+
+    @TearDown(Level.Trial)
+    public void printSize() {
+        System.out.printf("%n%d passenger(s): json %d bytes, binary %d bytes%n", passengers, json.getBody().length, binary.getBody().length);
+    }
+
+    @Benchmark
+    public EncodedMessage encodeJson() {
+        return jsonCodec.encode(orderMessage);
+    }
+
+    @Benchmark
+    public EncodedMessage encodeBinary() {
+        return binaryCodec.encode(orderMessage);
+    }
+
+    @Benchmark
+    public OrderMessage decodeJson() {
+        return OrderMessageCodec.decode(json);
+    }
+
+    @Benchmark
+    public OrderMessage decodeBinary() {
+        return OrderMessageCodec.decode(binary);
+    }
+}
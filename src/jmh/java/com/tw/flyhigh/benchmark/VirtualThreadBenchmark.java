@@ -0,0 +1,83 @@
+package com.tw.flyhigh.benchmark;
+
+import com.tw.flyhigh.common.util.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 模拟 concurrency 个同时到达的下单请求，每个请求依次阻塞在座位预留（Feign）和保存订单（JDBC）上，
+ * 对比 Tomcat 默认的 200 个平台线程和每请求一个虚拟线程处理完整批请求的耗时；
+ * pinned 为 true 时阻塞发生在 synchronized 块中，模拟在 socket 读写上加锁的旧版驱动占住载体线程。
+ * 虚拟线程需要用 JDK 21 运行：
+ * JAVA_HOME=/path/to/jdk21 ./gradlew jmh -Pjmh.includes=VirtualThreadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualThreadBenchmark {
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long SEAT_SERVICE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long DATABASE_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    @Param({"platform", "virtual"})
+    private String executor;
+
+    @Param({"1000", "10000"})
+    private int concurrency;
+
+    @Param({"false", "true"})
+    private boolean pinned;
+
+    private ExecutorService requestExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        requestExecutor = "virtual".equals(executor)
+            ? VirtualThreads.newThreadPerTaskExecutor("request-")
+            : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        requestExecutor.shutdown();
+        requestExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void handleRequests() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            requestExecutor.execute(() -> {
+                blockingCall(SEAT_SERVICE_NANOS);
+                blockingCall(DATABASE_NANOS);
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+    private void blockingCall(long nanos) {
+        if (!pinned) {
+            LockSupport.parkNanos(nanos);
+            return;
+        }
+        Object connection = new Object();
+        synchronized (connection) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+}
@@ -2,9 +2,14 @@ package com.tw.flyhigh.common;
 
 import com.tw.flyhigh.common.exception.BusinessException;
 import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.common.exception.IdempotencyKeyReusedException;
 import com.tw.flyhigh.common.exception.NoMoreSeatException;
 import com.tw.flyhigh.common.exception.OrderNotFoundException;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.common.exception.OrderStatusTransitionException;
+import com.tw.flyhigh.common.exception.ParamException;
 import com.tw.flyhigh.common.exception.ReserveException;
+import com.tw.flyhigh.common.exception.SeatServiceUnavailableException;
 import feign.FeignException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -33,6 +38,14 @@ public class ExceptionHandlerAdvice {
                 Objects.requireNonNull(exception.getBindingResult().getFieldError()).getDefaultMessage()));
     }
 
+    @ExceptionHandler(ParamException.class)
+    public ResponseEntity<ExceptionBody> handle(ParamException exception) {
+        log.error(exception.getMessage());
+        return ResponseEntity.badRequest()
+            .contentType(jsonUtf8)
+            .body(new ExceptionBody(exception.getErrorCode().getValue(), exception.getMessage()));
+    }
+
     @ExceptionHandler(ReserveException.class)
     public ResponseEntity<ExceptionBody> handle(ReserveException exception) {
         log.error(exception.getMessage());
@@ -52,6 +65,34 @@ public class ExceptionHandlerAdvice {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(jsonUtf8).body("机票已售罄");
     }
 
+    @ExceptionHandler(OrderOverloadException.class)
+    public ResponseEntity<ExceptionBody> handle(OrderOverloadException exception) {
+        log.warn(exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(jsonUtf8)
+            .body(new ExceptionBody(ErrorCode.ORDER_OVERLOADED.getValue(), "系统繁忙，请稍后再试"));
+    }
+
+    @ExceptionHandler(OrderStatusTransitionException.class)
+    public ResponseEntity<ExceptionBody> handle(OrderStatusTransitionException exception) {
+        log.warn(exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(jsonUtf8)
+            .body(new ExceptionBody(exception.getErrorCode().getValue(), exception.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ExceptionBody> handle(IdempotencyKeyReusedException exception) {
+        log.warn(exception.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).contentType(jsonUtf8)
+            .body(new ExceptionBody(exception.getErrorCode().getValue(), "幂等键已用于其他下单请求"));
+    }
+
+    @ExceptionHandler(SeatServiceUnavailableException.class)
+    public ResponseEntity<ExceptionBody> handle(SeatServiceUnavailableException exception) {
+        log.warn(exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(jsonUtf8)
+            .body(new ExceptionBody(exception.getErrorCode().getValue(), "座位服务暂不可用，请稍后再试"));
+    }
+
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<String> handle(BusinessException exception) {
         log.error(exception.getMessage());
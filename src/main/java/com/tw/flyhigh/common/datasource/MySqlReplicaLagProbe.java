@@ -0,0 +1,23 @@
+package com.tw.flyhigh.common.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+public class MySqlReplicaLagProbe implements ReplicaLagProbe {
+    @Override
+    public Duration lag(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SHOW SLAVE STATUS")) {
+            if (!resultSet.next()) {
+                return Duration.ZERO;
+            }
+            long seconds = resultSet.getLong("Seconds_Behind_Master");
+            return resultSet.wasNull() ? null : Duration.ofSeconds(seconds);
+        }
+    }
+}
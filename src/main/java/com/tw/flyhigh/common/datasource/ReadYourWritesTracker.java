@@ -0,0 +1,33 @@
+package com.tw.flyhigh.common.datasource;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.tw.flyhigh.config.ReadReplicaProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录最近写过订单的用户，在从库追上之前该用户的查询走主库
+ */
+@Component
+public class ReadYourWritesTracker {
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(ReadReplicaProperties properties) {
+        this.recentWriters = CacheBuilder.newBuilder()
+                                         .maximumSize(100_000)
+                                         .expireAfterWrite(properties.getStickyWindow().toMillis(), TimeUnit.MILLISECONDS)
+                                         .build();
+    }
+
+    public void markWritten(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isSticky(Long userId) {
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tw.flyhigh.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * 定期检查从库延迟，超过阈值或检查失败的从库暂停路由，恢复后自动重新启用
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaLagProbe probe;
+    private final Duration maxLag;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, ReplicaLagProbe probe, Duration maxLag) {
+        this.routingDataSource = routingDataSource;
+        this.probe = probe;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${order.read-replica.lag-check-interval-ms:1000}")
+    public void check() {
+        routingDataSource.getReplicas().forEach((name, replica) -> {
+            boolean healthy;
+            try {
+                Duration lag = probe.lag(replica);
+                healthy = lag != null && lag.compareTo(maxLag) <= 0;
+                if (!healthy) {
+                    log.warn("replica {} lag {} exceeds {}, reading from primary", name, lag, maxLag);
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("check lag of replica {} failed: {}", name, e.getMessage());
+                healthy = false;
+            }
+            routingDataSource.markHealthy(name, healthy);
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.tw.flyhigh.common.datasource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * 查询从库复制延迟，复制中断时返回 null
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+    Duration lag(DataSource replica) throws SQLException;
+}
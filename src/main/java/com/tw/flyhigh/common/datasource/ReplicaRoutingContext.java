@@ -0,0 +1,27 @@
+package com.tw.flyhigh.common.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 在当前线程强制读主库，用于刚写入后需要读到最新数据的场景
+ */
+public final class ReplicaRoutingContext {
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_FORCED.set(previous);
+        }
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get();
+    }
+}
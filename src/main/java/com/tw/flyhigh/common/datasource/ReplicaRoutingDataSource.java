@@ -0,0 +1,75 @@
+package com.tw.flyhigh.common.datasource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 只读事务路由到延迟在阈值内的从库，其余情况（写事务、无事务、强制主库、从库全部不可用）走主库。
+ * 需要包在 LazyConnectionDataSourceProxy 里使用，保证取连接时事务的只读标记已经设置。
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicaDataSources;
+    private final List<String> replicas;
+    private final Set<String> unhealthyReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.replicaDataSources = Collections.unmodifiableMap(replicas);
+        this.replicas = new ArrayList<>(replicas.keySet());
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicaDataSources;
+    }
+
+    public void markHealthy(String replica, boolean healthy) {
+        if (healthy) {
+            unhealthyReplicas.remove(replica);
+        } else {
+            unhealthyReplicas.add(replica);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRoutingContext.isPrimaryForced()) {
+            return PRIMARY;
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            String replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!unhealthyReplicas.contains(replica)) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * 从库连接池由本类创建，主库由容器管理
+     */
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicaDataSources.values()) {
+            if (replica instanceof AutoCloseable) {
+                ((AutoCloseable) replica).close();
+            }
+        }
+    }
+}
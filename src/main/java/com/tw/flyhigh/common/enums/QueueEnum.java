@@ -4,7 +4,9 @@ import lombok.Getter;
 
 @Getter
 public enum QueueEnum {
-    QUEUE_AGENT("agnet.order.queue", "agnet.order", "agnet.order.*");
+    QUEUE_AGENT("agnet.order.queue", "agnet.order", "agnet.order.*"),
+    QUEUE_AGENT_DEAD_LETTER("agnet.order.dlx", "agnet.order.dlq", "agnet.order.dead"),
+    QUEUE_AGENT_RETRY("agnet.order.dlx", "agnet.order.retry", "agnet.order.retry");
 
     private String exchange;
     private String name;
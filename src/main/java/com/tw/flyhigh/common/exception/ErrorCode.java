@@ -17,7 +17,17 @@ public enum ErrorCode {
 
     ORDER_NOT_FOUND("10006"),
 
-    ORDER_RELEASE_SEAT_FAILED("10007");
+    ORDER_RELEASE_SEAT_FAILED("10007"),
+
+    ORDER_OVERLOADED("10008"),
+
+    NO_MORE_SEAT("10009"),
+
+    ILLEGAL_STATUS_TRANSITION("10010"),
+
+    SEAT_SERVICE_UNAVAILABLE("10011"),
+
+    IDEMPOTENCY_KEY_REUSED("10012");
 
     private final String value;
 
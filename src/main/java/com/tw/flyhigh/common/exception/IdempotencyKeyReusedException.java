@@ -0,0 +1,14 @@
+package com.tw.flyhigh.common.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends BusinessException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(ErrorCode.IDEMPOTENCY_KEY_REUSED, message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.tw.flyhigh.common.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OrderStatusTransitionException extends BusinessException {
+
+    public OrderStatusTransitionException(String message) {
+        super(ErrorCode.ILLEGAL_STATUS_TRANSITION, message);
+    }
+}
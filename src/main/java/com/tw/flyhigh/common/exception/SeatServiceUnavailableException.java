@@ -0,0 +1,14 @@
+package com.tw.flyhigh.common.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SeatServiceUnavailableException extends BusinessException {
+
+    public SeatServiceUnavailableException(String message) {
+        super(ErrorCode.SEAT_SERVICE_UNAVAILABLE, message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.tw.flyhigh.common.util;
+
+import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.common.exception.ParamException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 订单分页游标：上一页最后一个订单的 (createdAt, id)，对客户端是不透明的 base64 字符串
+ */
+@Value
+public class OrderCursor {
+    LocalDateTime createdAt;
+    Long id;
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new ParamException(ErrorCode.INVALID_PARAMETER, "invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.agent-ingest")
+public class AgentOrderIngestProperties {
+    /**
+     * 是否消费代理渠道订单队列
+     */
+    private boolean enabled = false;
+    private int concurrency = 2;
+    private int maxConcurrency = 4;
+    /**
+     * 每个消费者未确认消息的上限，需要不小于 batchSize
+     */
+    private int prefetch = 250;
+    /**
+     * 一次交给监听器处理并确认的消息数
+     */
+    private int batchSize = 100;
+    /**
+     * 批未攒满时等待下一条消息的时间，超时后按已收到的消息处理
+     */
+    private Duration receiveTimeout = Duration.ofMillis(200);
+    /**
+     * 暂时失败的订单在重试队列中等待的时间，作为重试队列的 x-message-ttl 声明，部署后修改需要先删除该队列
+     */
+    private Duration retryDelay = Duration.ofSeconds(5);
+    /**
+     * 暂时失败的订单最多重试的次数，超过后转入死信队列
+     */
+    private int maxRetries = 5;
+}
@@ -15,8 +15,6 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 
-import java.util.concurrent.TimeUnit;
-
 @Configuration
 public class DefaultFeignConfig {
     private final ObjectFactory<HttpMessageConverters> messageConverters;
@@ -25,9 +23,12 @@ public class DefaultFeignConfig {
         this.messageConverters = messageConverters;
     }
 
+    /**
+     * 重试由 ResilientPriceSeatManagerClient 按重试预算控制，Feign 不再在调用线程上等待重试
+     */
     @Bean
     Retryer feignRetryer() {
-        return new Retryer.Default(200, TimeUnit.SECONDS.toMillis(1), 3);
+        return Retryer.NEVER_RETRY;
     }
 
     @Bean
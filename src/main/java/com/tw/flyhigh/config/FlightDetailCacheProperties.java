@@ -0,0 +1,21 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "third.price-seat-manager.flight-detail-cache")
+public class FlightDetailCacheProperties {
+    private long maximumSize = 10_000;
+    /**
+     * 航班详情最长缓存时间，过期后下一次查询同步加载
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+    /**
+     * 写入超过该时间后的首次查询仍返回旧值，同时在后台刷新，应小于 ttl
+     */
+    private Duration refreshAfter = Duration.ofMinutes(8);
+    private int refreshThreads = 2;
+}
@@ -0,0 +1,20 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.idempotency")
+public class IdempotencyProperties {
+    /**
+     * 内存中保留的幂等键数量上限，超出后按 LRU 淘汰，淘汰后由数据库唯一约束兜底
+     */
+    private long maxKeys = 100_000;
+    private Duration ttl = Duration.ofHours(1);
+    /**
+     * 重复请求等待首个请求完成的最长时间
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,50 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.message-bus")
+public class MessageBusProperties {
+    /**
+     * amqp：经 RabbitMQ 发送；ring-buffer：进程内环形队列，单节点部署和测试使用，不需要 broker
+     */
+    private String type = "amqp";
+    /**
+     * 环形队列槽数，取 2 的幂
+     */
+    private int bufferSize = 65536;
+    /**
+     * 消费者每次最多处理的消息数
+     */
+    private int maxBatchSize = 256;
+    /**
+     * 消费者等待新消息的方式
+     */
+    private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+    /**
+     * 队列满时发送方最长等待时间，超过后抛出异常
+     */
+    private Duration publishTimeout = Duration.ofSeconds(1);
+
+    public enum WaitStrategy {
+        /**
+         * 空转，延迟最低，每个消费者独占一个 CPU
+         */
+        BUSY_SPIN,
+        /**
+         * 空转时让出 CPU
+         */
+        YIELDING,
+        /**
+         * 短暂休眠，CPU 占用低，延迟在百微秒级
+         */
+        SLEEPING,
+        /**
+         * 阻塞等待发送方唤醒
+         */
+        BLOCKING
+    }
+}
@@ -0,0 +1,29 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.async-acceptance")
+public class OrderAcceptanceProperties {
+    /**
+     * 是否允许客户端通过 Prefer: respond-async 异步受理下单，关闭时按同步方式处理。
+     * 凭证只保存在受理实例的内存中，多实例部署时需要按 /orders/tickets/{token} 粘滞路由到受理实例
+     */
+    private boolean enabled = false;
+    private int workers = 16;
+    /**
+     * 等待处理的下单请求上限，超过后直接返回 503
+     */
+    private int queueCapacity = 2000;
+    /**
+     * 受理凭证的保留时间
+     */
+    private Duration ticketTtl = Duration.ofMinutes(10);
+    /**
+     * 已完成凭证的最大保留数量，处理中的凭证不计入
+     */
+    private long maxTickets = 100_000;
+}
@@ -0,0 +1,17 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "order.async-db")
+public class OrderDbExecutorProperties {
+    /**
+     * 非阻塞下单中执行数据库查询和保存的线程数，不要超过数据库连接池大小
+     */
+    private int threads = 10;
+    /**
+     * 等待执行的数据库操作上限，超过后返回 503
+     */
+    private int queueCapacity = 1000;
+}
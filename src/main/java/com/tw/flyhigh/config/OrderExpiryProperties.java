@@ -0,0 +1,35 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.expiry")
+public class OrderExpiryProperties {
+    /**
+     * 是否自动取消超时未支付的订单
+     */
+    private boolean enabled = false;
+    /**
+     * 下单后等待支付的时间，超过后取消订单并归还座位
+     */
+    private Duration ttl = Duration.ofMinutes(30);
+    /**
+     * 时间轮槽数，取 2 的幂，槽数 × tick 为时间轮转一圈的时间
+     */
+    private int wheelSize = 4096;
+    /**
+     * 每批取消的订单数，同一批中相同航班舱位的座位合并归还
+     */
+    private int batchSize = 200;
+    /**
+     * 取消失败（非状态冲突）时重新尝试的间隔
+     */
+    private Duration retryDelay = Duration.ofMinutes(1);
+    /**
+     * 启动时从数据库恢复待支付订单的分页大小
+     */
+    private int rebuildPageSize = 1000;
+}
@@ -0,0 +1,24 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.publisher")
+public class OrderPublisherProperties {
+    /**
+     * 已发送但尚未收到 broker 确认的最大消息数，达到后发送方等待
+     */
+    private int maxInFlight = 256;
+    /**
+     * 被 nack、因无法路由被退回或等待确认超时时的最多发送次数（含第一次）
+     */
+    private int maxAttempts = 3;
+    private Duration retryBackoff = Duration.ofMillis(200);
+    /**
+     * 等待发送窗口、每次发送的 broker 确认以及 sendMessages 整批确认的最长时间
+     */
+    private Duration confirmTimeout = Duration.ofSeconds(10);
+}
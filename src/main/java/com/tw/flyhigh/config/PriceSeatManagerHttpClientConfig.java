@@ -0,0 +1,121 @@
+package com.tw.flyhigh.config;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.integration.client.MeteredConnectionManager;
+import com.tw.flyhigh.integration.client.PerMethodTimeoutClient;
+import feign.Client;
+import feign.httpclient.ApacheHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * price-seat-manager 的 Feign 客户端改用 Apache HttpClient 连接池，长连接复用，
+ * 后台线程关闭空闲和过期连接。连接池满时按 connectionRequestTimeout 等待。
+ * 非阻塞客户端使用单独的 NIO 连接池，连接数和超时沿用同一组配置。
+ */
+@Configuration
+public class PriceSeatManagerHttpClientConfig {
+    private static final String POOL_NAME = "price-seat-manager";
+
+    private final PriceSeatManagerHttpProperties properties;
+
+    public PriceSeatManagerHttpClientConfig(PriceSeatManagerHttpProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public MeteredConnectionManager priceSeatManagerConnectionManager(@Value("${third.price-seat-manager.url}") String url,
+                                                                      MeterRegistry meterRegistry) {
+        MeteredConnectionManager connectionManager = new MeteredConnectionManager(POOL_NAME, properties.getTimeToLive(), meterRegistry);
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getDefaultMaxPerRoute());
+        connectionManager.setMaxPerRoute(route(url), properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient priceSeatManagerHttpClient(MeteredConnectionManager priceSeatManagerConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                                                   .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                                                   .setConnectTimeout((int) properties.getDefaults().getConnectTimeout().toMillis())
+                                                   .setSocketTimeout((int) properties.getDefaults().getReadTimeout().toMillis())
+                                                   .build();
+        return HttpClients.custom()
+                          .setConnectionManager(priceSeatManagerConnectionManager)
+                          .setDefaultRequestConfig(requestConfig)
+                          .evictExpiredConnections()
+                          .evictIdleConnections(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                          .disableCookieManagement()
+                          // 重试由 Feign 的 Retryer 负责
+                          .disableAutomaticRetries()
+                          .build();
+    }
+
+    @Bean
+    public Client feignClient(CloseableHttpClient priceSeatManagerHttpClient) {
+        return new PerMethodTimeoutClient(new ApacheHttpClient(priceSeatManagerHttpClient), properties);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient priceSeatManagerAsyncHttpClient(@Value("${third.price-seat-manager.url}") String url) throws IOReactorException {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                                                         .setIoThreadCount(properties.getIoThreads())
+                                                         .setConnectTimeout((int) properties.getDefaults().getConnectTimeout().toMillis())
+                                                         .setSoTimeout((int) properties.getDefaults().getReadTimeout().toMillis())
+                                                         .build();
+        DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(ioReactorConfig,
+            new ThreadFactoryBuilder().setNameFormat("price-seat-manager-io-%d").setDaemon(true).build());
+        PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+            ioReactor, null, RegistryBuilder.<SchemeIOSessionStrategy>create()
+                                            .register("http", NoopIOSessionStrategy.INSTANCE)
+                                            .register("https", SSLIOSessionStrategy.getDefaultStrategy())
+                                            .build(),
+            null, null, properties.getTimeToLive().toMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getDefaultMaxPerRoute());
+        connectionManager.setMaxPerRoute(route(url), properties.getMaxPerRoute());
+        RequestConfig requestConfig = RequestConfig.custom()
+                                                   .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                                                   .setConnectTimeout((int) properties.getDefaults().getConnectTimeout().toMillis())
+                                                   .setSocketTimeout((int) properties.getDefaults().getReadTimeout().toMillis())
+                                                   .build();
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                                                              .setConnectionManager(connectionManager)
+                                                              .setDefaultRequestConfig(requestConfig)
+                                                              .disableCookieManagement()
+                                                              .build();
+        httpClient.start();
+        return httpClient;
+    }
+
+    /**
+     * 与 HttpClient 执行请求时规划的路由一致：未写端口时补上协议默认端口
+     */
+    static HttpRoute route(String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : secure ? 443 : 80;
+        return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+    }
+}
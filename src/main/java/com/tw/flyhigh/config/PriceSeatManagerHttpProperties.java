@@ -0,0 +1,64 @@
+package com.tw.flyhigh.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "third.price-seat-manager.http")
+public class PriceSeatManagerHttpProperties {
+    /**
+     * 连接池总连接数
+     */
+    private int maxTotal = 200;
+    /**
+     * 连往 price-seat-manager 的最大连接数
+     */
+    private int maxPerRoute = 100;
+    /**
+     * 其他地址的最大连接数
+     */
+    private int defaultMaxPerRoute = 20;
+    /**
+     * 连接池满时等待空闲连接的时间
+     */
+    private Duration connectionRequestTimeout = Duration.ofMillis(500);
+    /**
+     * 空闲超过该时间的连接被后台线程关闭，应小于服务端的 keep-alive 超时
+     */
+    private Duration idleTimeout = Duration.ofSeconds(30);
+    /**
+     * 连接最长存活时间，到期后不再复用，便于服务端扩缩容后重新分布连接
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+    /**
+     * 连接空闲超过该时间后，复用前先检查是否已被服务端关闭
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    private Timeout defaults = new Timeout(Duration.ofSeconds(1), Duration.ofSeconds(3));
+    /**
+     * 按 Feign 方法名覆盖超时，例如 getFlightDetail
+     */
+    private Map<String, Timeout> methods = new LinkedHashMap<>();
+    /**
+     * 非阻塞客户端的 IO 线程数，只负责收发报文
+     */
+    private int ioThreads = 2;
+    /**
+     * 非阻塞客户端完成回调的线程数，调用方的后续处理（例如保存订单）在这些线程上执行
+     */
+    private int callbackThreads = 16;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Timeout {
+        private Duration connectTimeout;
+        private Duration readTimeout;
+    }
+}
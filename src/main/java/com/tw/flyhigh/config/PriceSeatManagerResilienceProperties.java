@@ -0,0 +1,56 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "third.price-seat-manager.resilience")
+public class PriceSeatManagerResilienceProperties {
+    /**
+     * 每次调用最多尝试次数（含首次），重试还受重试预算限制
+     */
+    private int maxAttempts = 2;
+    /**
+     * 每个请求为重试预算存入的额度，0.1 表示重试最多占请求量的 10%
+     */
+    private double retryRatio = 0.1;
+    /**
+     * 流量很小时每秒至少允许的重试次数
+     */
+    private int minRetriesPerSecond = 5;
+    /**
+     * 熔断器统计最近多少次调用
+     */
+    private int circuitWindowSize = 50;
+    /**
+     * 窗口内调用次数达到该值后才计算失败率
+     */
+    private int circuitMinimumCalls = 20;
+    /**
+     * 失败率达到该值时熔断
+     */
+    private double circuitFailureRate = 0.5;
+    /**
+     * 熔断后多久放行试探请求
+     */
+    private Duration circuitOpenDuration = Duration.ofSeconds(10);
+    /**
+     * 半开状态放行的试探请求数，全部成功后关闭熔断
+     */
+    private int circuitHalfOpenCalls = 3;
+    /**
+     * 查询航班详情超过 hedgeDelay 未返回时再发一次相同请求，取先返回的结果
+     */
+    private boolean hedgeEnabled = true;
+    /**
+     * 取查询航班详情延迟的 p95 左右
+     */
+    private Duration hedgeDelay = Duration.ofMillis(50);
+    private int hedgeThreads = 16;
+    /**
+     * 保留最近一次查询成功的航班详情数，熔断或查询失败时返回
+     */
+    private long lastKnownGoodSize = 10_000;
+}
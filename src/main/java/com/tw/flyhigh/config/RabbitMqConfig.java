@@ -2,13 +2,18 @@ package com.tw.flyhigh.config;
 
 import com.tw.flyhigh.common.enums.QueueEnum;
 import com.tw.flyhigh.common.enums.TopicEnum;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.ExchangeBuilder;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -23,6 +28,10 @@ public class RabbitMqConfig {
             .build();
     }
 
+    /**
+     * 队列已在各环境部署，不能修改声明参数（RabbitMQ 会以 PRECONDITION_FAILED 拒绝重新声明），
+     * 需要重试或转入死信的消息由 AgentOrderListener 显式发送到对应队列
+     */
     @Bean
     public Queue orderQueue() {
         return new Queue(QueueEnum.QUEUE_AGENT.getName());
@@ -36,6 +45,67 @@ public class RabbitMqConfig {
             .with(QueueEnum.QUEUE_AGENT.getRouteKey());
     }
 
+    @Bean
+    DirectExchange orderDeadLetterExchange() {
+        return ExchangeBuilder
+            .directExchange(QueueEnum.QUEUE_AGENT_DEAD_LETTER.getExchange())
+            .durable(true)
+            .build();
+    }
+
+    @Bean
+    public Queue orderDeadLetterQueue() {
+        return QueueBuilder.durable(QueueEnum.QUEUE_AGENT_DEAD_LETTER.getName()).build();
+    }
+
+    @Bean
+    Binding orderDeadLetterBinding(DirectExchange orderDeadLetterExchange, Queue orderDeadLetterQueue) {
+        return BindingBuilder
+            .bind(orderDeadLetterQueue)
+            .to(orderDeadLetterExchange)
+            .with(QueueEnum.QUEUE_AGENT_DEAD_LETTER.getRouteKey());
+    }
+
+    /**
+     * 暂时失败的代理订单在此等待 retryDelay，过期后回到订单队列重新消费
+     */
+    @Bean
+    public Queue orderRetryQueue(AgentOrderIngestProperties properties) {
+        return QueueBuilder.durable(QueueEnum.QUEUE_AGENT_RETRY.getName())
+                           .ttl((int) properties.getRetryDelay().toMillis())
+                           .deadLetterExchange(QueueEnum.QUEUE_AGENT.getExchange())
+                           .deadLetterRoutingKey(QueueEnum.QUEUE_AGENT.getRouteKey())
+                           .build();
+    }
+
+    @Bean
+    Binding orderRetryBinding(DirectExchange orderDeadLetterExchange, Queue orderRetryQueue) {
+        return BindingBuilder
+            .bind(orderRetryQueue)
+            .to(orderDeadLetterExchange)
+            .with(QueueEnum.QUEUE_AGENT_RETRY.getRouteKey());
+    }
+
+    /**
+     * 代理渠道订单的批量消费：一次交付 batchSize 条消息，由监听器手动批量确认
+     */
+    @Bean
+    SimpleRabbitListenerContainerFactory agentOrderContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                    ConnectionFactory connectionFactory,
+                                                                    AgentOrderIngestProperties properties) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(properties.getConcurrency());
+        factory.setMaxConcurrentConsumers(properties.getMaxConcurrency());
+        factory.setPrefetchCount(Math.max(properties.getPrefetch(), properties.getBatchSize()));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(properties.getBatchSize());
+        factory.setReceiveTimeout(properties.getReceiveTimeout().toMillis());
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
 
     @Bean
     public TopicExchange topic() {
@@ -0,0 +1,35 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "order.read-replica")
+public class ReadReplicaProperties {
+    /**
+     * 是否把只读事务路由到从库，关闭时所有读写都走 spring.datasource
+     */
+    private boolean enabled = false;
+    private List<Replica> replicas = new ArrayList<>();
+    /**
+     * 复制延迟超过该值的从库暂停使用
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+    /**
+     * 用户下单后在该时间内的查询走主库
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
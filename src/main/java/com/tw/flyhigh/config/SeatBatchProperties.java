@@ -0,0 +1,28 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.seat-batch")
+public class SeatBatchProperties {
+    /**
+     * 是否合并同一航班舱位的并发座位预留请求
+     */
+    private boolean enabled = false;
+    /**
+     * 收集同一航班舱位预留请求的时间窗口
+     */
+    private Duration window = Duration.ofMillis(5);
+    /**
+     * 单批最多合并的预留请求数，达到后立即发送
+     */
+    private int maxBatchSize = 50;
+    private int dispatchThreads = 4;
+    /**
+     * 调用方等待批量预留结果的最长时间
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+}
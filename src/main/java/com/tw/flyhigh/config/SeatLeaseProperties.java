@@ -0,0 +1,32 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.seat-lease")
+public class SeatLeaseProperties {
+    /**
+     * 是否启用本地座位额度租用，关闭时每次下单都直接调用 price-seat-manager
+     */
+    private boolean enabled = false;
+    /**
+     * 每次向 price-seat-manager 租用的座位数
+     */
+    private int blockSize = 20;
+    /**
+     * 本地剩余额度低于该值时后台补充
+     */
+    private int lowWatermark = 5;
+    private int refillThreads = 2;
+    /**
+     * 额度闲置超过该时间后归还给 price-seat-manager
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+    /**
+     * 租用失败（已售罄或远程异常）后暂停补充的时间
+     */
+    private Duration exhaustedBackoff = Duration.ofSeconds(10);
+}
@@ -0,0 +1,21 @@
+package com.tw.flyhigh.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order.user-order-cache")
+public class UserOrderCacheProperties {
+    /**
+     * 是否缓存用户订单首页，关闭时每次都查询数据库，便于对比
+     */
+    private boolean enabled = false;
+    /**
+     * 缓存占用内存上限，按订单、乘客、事件条数估算
+     */
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,105 @@
+package com.tw.flyhigh.config;
+
+import com.tw.flyhigh.common.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.amqp.rabbit.config.AbstractRabbitListenerContainerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虚拟线程运行模式，需要 JDK 21：
+ * <ul>
+ * <li>Tomcat 每个请求一个虚拟线程，请求线程上的 Feign、JDBC 调用阻塞时不占用平台线程</li>
+ * <li>每个定时任务（outbox relay、订单超时等）占用各自的虚拟线程，relay 等待 MQ 确认时不会拖住其他定时任务</li>
+ * <li>MQ 监听容器的消费者在虚拟线程上执行</li>
+ * </ul>
+ * 并发不再受线程池限制，数据库和下游连接池成为实际的并发上限。
+ * 在 synchronized 块中阻塞会占住载体线程，启动参数加 -Djdk.tracePinnedThreads=short 打印发生 pinning 的调用栈。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "order.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    /**
+     * 调度线程数，大于 @Scheduled 任务的数量，每个 fixedDelay 任务同一时刻最多占用一个线程，互不排队
+     */
+    private static final int SCHEDULER_POOL_SIZE = 32;
+
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    public VirtualThreadConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("order.virtual-threads.enabled requires JDK 21 or later, running on "
+                                                + System.getProperty("java.version"));
+        }
+        log.info("servlet requests, scheduled tasks and MQ listeners run on virtual threads");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(track(executors, VirtualThreads.newThreadPerTaskExecutor("tomcat-virtual-")));
+    }
+
+    /**
+     * 替换 Spring Boot 默认的单线程调度器：线程是虚拟线程，数量足够每个 @Scheduled 任务各占一个，
+     * relay 阻塞等待 MQ 确认时订单超时、缓存失效广播等任务照常执行；同一任务仍按 fixedDelay 串行
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(SCHEDULER_POOL_SIZE);
+        taskScheduler.setThreadFactory(VirtualThreads.factory("scheduling-virtual-"));
+        taskScheduler.setWaitForTasksToCompleteOnShutdown(true);
+        taskScheduler.setAwaitTerminationSeconds(10);
+        return taskScheduler;
+    }
+
+    @Bean
+    public static VirtualThreadRabbitListenerPostProcessor virtualThreadRabbitListenerPostProcessor() {
+        return new VirtualThreadRabbitListenerPostProcessor();
+    }
+
+    /**
+     * Tomcat 不会关闭外部传入的 executor，在 Web 服务器停止后关闭
+     */
+    @PreDestroy
+    public void shutdown() {
+        executors.forEach(ExecutorService::shutdown);
+    }
+
+    private static ExecutorService track(List<ExecutorService> executors, ExecutorService executor) {
+        executors.add(executor);
+        return executor;
+    }
+
+    static class VirtualThreadRabbitListenerPostProcessor implements BeanPostProcessor, DisposableBean {
+        private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof AbstractRabbitListenerContainerFactory) {
+                ((AbstractRabbitListenerContainerFactory<?>) bean).setTaskExecutor(track(executors, VirtualThreads.newThreadPerTaskExecutor(beanName + "-virtual-")));
+            }
+            return bean;
+        }
+
+        /**
+         * 监听容器在 Bean 销毁前已停止，此时关闭其消费者使用的 executor
+         */
+        @Override
+        public void destroy() {
+            executors.forEach(ExecutorService::shutdown);
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.tw.flyhigh.controller;
 
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
+import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.common.exception.OrderNotFoundException;
+import com.tw.flyhigh.common.exception.ParamException;
+import com.tw.flyhigh.dto.BatchCreateOrderDto;
+import com.tw.flyhigh.dto.BatchOrderResult;
 import com.tw.flyhigh.dto.CreateOrderDto;
 import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
+import com.tw.flyhigh.dto.OrderStatusEventDto;
+import com.tw.flyhigh.dto.OrderTicket;
+import com.tw.flyhigh.service.impl.OrderAcceptancePipeline;
 import com.tw.flyhigh.service.impl.OrderServiceImpl;
+import com.tw.flyhigh.service.impl.OrderStatusEngine;
+import com.tw.flyhigh.service.impl.OrderStatusTransitions;
 import io.swagger.annotations.Api;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,30 +23,127 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Api("机票订单管理接口文档")
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int IDEMPOTENCY_KEY_MAX_LENGTH = 64;
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
 
     private final OrderServiceImpl orderServiceImpl;
+    private final OrderAcceptancePipeline orderAcceptancePipeline;
+    private final OrderStatusEngine orderStatusEngine;
 
-    public OrderController(OrderServiceImpl orderServiceImpl) {
+    public OrderController(OrderServiceImpl orderServiceImpl, OrderAcceptancePipeline orderAcceptancePipeline, OrderStatusEngine orderStatusEngine) {
         this.orderServiceImpl = orderServiceImpl;
+        this.orderAcceptancePipeline = orderAcceptancePipeline;
+        this.orderStatusEngine = orderStatusEngine;
     }
 
     @PostMapping
-    public ResponseEntity<Order> createOrder(@Validated @RequestBody CreateOrderDto createOrderDto) {
-        Order order = orderServiceImpl.createOrder(createOrderDto);
+    public ResponseEntity<Order> createOrder(@Validated @RequestBody CreateOrderDto createOrderDto,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        checkIdempotencyKey(idempotencyKey);
+        Order order = idempotencyKey == null ? orderServiceImpl.createOrder(createOrderDto) : orderServiceImpl.createOrder(createOrderDto, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
+    /**
+     * 非阻塞下单：等待座位预留时释放 servlet 线程，订单保存后写回 201 响应
+     */
+    @PostMapping(params = "nonBlocking=true")
+    public CompletableFuture<ResponseEntity<Order>> createOrderNonBlocking(@Validated @RequestBody CreateOrderDto createOrderDto,
+                                                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        checkIdempotencyKey(idempotencyKey);
+        return orderServiceImpl.createOrderAsync(createOrderDto, idempotencyKey)
+                               .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED).body(order));
+    }
+
+    /**
+     * 客户端声明 Prefer: respond-async 时异步受理，未开启异步受理时按同步方式创建订单
+     */
+    @PostMapping(headers = "Prefer=respond-async")
+    public ResponseEntity<?> acceptOrder(@Validated @RequestBody CreateOrderDto createOrderDto,
+                                         @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (!orderAcceptancePipeline.isEnabled()) {
+            return createOrder(createOrderDto, idempotencyKey);
+        }
+        checkIdempotencyKey(idempotencyKey);
+        OrderTicket ticket = orderAcceptancePipeline.submit(createOrderDto, idempotencyKey);
+        return ResponseEntity.accepted().location(URI.create("/orders/tickets/" + ticket.getToken())).body(ticket);
+    }
+
+    /**
+     * 幂等键存放在 varchar(64) 列中，超长的键直接拒绝
+     */
+    private static void checkIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey != null && idempotencyKey.length() > IDEMPOTENCY_KEY_MAX_LENGTH) {
+            throw new ParamException(ErrorCode.INVALID_PARAMETER, IDEMPOTENCY_KEY + " must not exceed " + IDEMPOTENCY_KEY_MAX_LENGTH + " characters");
+        }
+    }
+
+    /**
+     * 批量下单，按请求顺序返回每个订单的结果
+     */
+    @PostMapping("/batch")
+    public List<BatchOrderResult> createOrders(@Validated @RequestBody BatchCreateOrderDto batchCreateOrderDto) {
+        return orderServiceImpl.createOrders(batchCreateOrderDto.getOrders());
+    }
+
+    @GetMapping("/tickets/{token}")
+    public OrderTicket getTicket(@PathVariable("token") String token) {
+        return orderAcceptancePipeline.find(token).orElseThrow(() -> new OrderNotFoundException("ticket " + token + " not found"));
+    }
+
+    @GetMapping(path = "/tickets/{token}", params = "waitMillis")
+    public CompletableFuture<OrderTicket> awaitTicket(@PathVariable("token") String token, @RequestParam("waitMillis") long waitMillis) {
+        return orderAcceptancePipeline.await(token, Math.min(waitMillis, 30_000L))
+                                      .orElseThrow(() -> new OrderNotFoundException("ticket " + token + " not found"));
+    }
+
+    /**
+     * 订单状态事件（支付、出票、退款等），非法的状态流转返回 409。
+     * 需要归还座位的状态（取消）返回 400，只能通过对应的接口流转
+     */
+    @PostMapping("/{orderId}/status-events")
+    public CompletableFuture<Order> changeStatus(@PathVariable("orderId") Long orderId,
+                                                 @Validated @RequestBody OrderStatusEventDto orderStatusEventDto) {
+        OrderStatusEnum status = orderStatusEventDto.getStatus();
+        if (OrderStatusTransitions.returnsSeats(status)) {
+            throw new ParamException(ErrorCode.INVALID_PARAMETER, "status " + status + " can not be submitted as a status event, use the cancellation endpoint");
+        }
+        return orderStatusEngine.submit(orderId, status);
+    }
+
+    /**
+     * 取消未支付的订单并归还座位，已支付的订单需要走退款
+     */
+    @PostMapping("/{orderId}/cancellation")
+    public Order cancelOrder(@PathVariable("orderId") Long orderId) {
+        return orderServiceImpl.cancelOrder(orderId);
+    }
+
+    /**
+     * 游标分页查询用户订单，下一页游标通过 X-Next-Cursor 响应头返回
+     */
     @GetMapping
-    public List<Order> getOrders(Long userId) {
-        return orderServiceImpl.getOrders(userId);
+    public ResponseEntity<List<Order>> getOrders(Long userId, @RequestParam(value = "cursor", required = false) String cursor,
+                                                 @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        OrderPage page = orderServiceImpl.getOrders(userId, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getOrders());
     }
 }
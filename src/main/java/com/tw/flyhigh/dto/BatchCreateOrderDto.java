@@ -0,0 +1,28 @@
+package com.tw.flyhigh.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@ApiModel("批量创建机票订单")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchCreateOrderDto {
+    public static final int MAX_ORDERS = 500;
+
+    @ApiModelProperty("订单列表，单次最多 500 个")
+    @NotEmpty
+    @Size(max = MAX_ORDERS)
+    @Valid
+    private List<CreateOrderDto> orders;
+}
@@ -0,0 +1,29 @@
+package com.tw.flyhigh.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@ApiModel("批量下单单个订单结果")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchOrderResult {
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    @ApiModelProperty("订单在请求中的序号，从 0 开始")
+    private int index;
+    @ApiModelProperty("处理状态：CREATED/FAILED")
+    private String status;
+    @ApiModelProperty("创建成功的订单")
+    private Order order;
+    @ApiModelProperty("失败错误码")
+    private String errorCode;
+    @ApiModelProperty("失败原因")
+    private String message;
+}
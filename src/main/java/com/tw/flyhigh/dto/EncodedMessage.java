@@ -0,0 +1,12 @@
+package com.tw.flyhigh.dto;
+
+import lombok.Value;
+
+/**
+ * 已编码的订单消息，contentType 随 AMQP 消息属性一起发送，消费方据此选择解码方式
+ */
+@Value
+public class EncodedMessage {
+    String contentType;
+    byte[] body;
+}
@@ -9,11 +9,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.beans.BeanUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @ApiModel("机票订单信息")
 @Data
@@ -84,23 +83,41 @@ public class Order {
 
     public static Order from(TicketOrderEntity ticketOrderEntity) {
         Order order = new Order();
-        BeanUtils.copyProperties(ticketOrderEntity, order);
+        order.setId(ticketOrderEntity.getId());
+        order.setUserId(ticketOrderEntity.getUserId());
+        order.setFlight(ticketOrderEntity.getFlight());
+        order.setClassType(ticketOrderEntity.getClassType());
+        order.setContactMobile(ticketOrderEntity.getContactMobile());
+        order.setContactName(ticketOrderEntity.getContactName());
+        order.setStatus(ticketOrderEntity.getStatus());
+        order.setCreatedAt(ticketOrderEntity.getCreatedAt());
         return order;
     }
 
     public static List<Passenger> transferPassenger(List<PassengerEntity> passengerEntities) {
-        return passengerEntities.stream().map(passengerEntity -> {
-            Order.Passenger passenger = Order.Passenger.builder().build();
-            BeanUtils.copyProperties(passengerEntity, passenger);
-            return passenger;
-        }).collect(Collectors.toList());
+        List<Passenger> passengers = new ArrayList<>(passengerEntities.size());
+        for (PassengerEntity passengerEntity : passengerEntities) {
+            Passenger passenger = new Passenger();
+            passenger.setId(passengerEntity.getId());
+            passenger.setName(passengerEntity.getName());
+            passenger.setAgeType(passengerEntity.getAgeType());
+            passenger.setIdentificationNumber(passengerEntity.getIdentificationNumber());
+            passenger.setMobile(passengerEntity.getMobile());
+            passenger.setPrice(passengerEntity.getPrice());
+            passenger.setBaggageWeight(passengerEntity.getBaggageWeight());
+            passenger.setInsuranceId(passengerEntity.getInsuranceId());
+            passenger.setInsuranceName(passengerEntity.getInsuranceName());
+            passenger.setInsurancePrice(passengerEntity.getInsurancePrice());
+            passengers.add(passenger);
+        }
+        return passengers;
     }
 
     public static List<OrderEvent> transferOrderEvent(List<TicketOrderEventEntity> orderEventEntities) {
-        return orderEventEntities.stream().map(orderEventEntity -> {
-            Order.OrderEvent orderEvent = Order.OrderEvent.builder().build();
-            BeanUtils.copyProperties(orderEventEntity, orderEvent);
-            return orderEvent;
-        }).collect(Collectors.toList());
+        List<OrderEvent> orderEvents = new ArrayList<>(orderEventEntities.size());
+        for (TicketOrderEventEntity orderEventEntity : orderEventEntities) {
+            orderEvents.add(new OrderEvent(orderEventEntity.getId(), orderEventEntity.getStatus(), orderEventEntity.getCreatedAt()));
+        }
+        return orderEvents;
     }
 }
@@ -6,11 +6,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.beans.BeanUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Data
 @AllArgsConstructor
@@ -46,15 +45,25 @@ public class OrderMessage {
 
     public static OrderMessage from(TicketOrderEntity ticketOrderEntity) {
         OrderMessage orderDto = new OrderMessage();
-        BeanUtils.copyProperties(ticketOrderEntity, orderDto);
+        orderDto.setId(ticketOrderEntity.getId());
+        orderDto.setUserId(ticketOrderEntity.getUserId());
+        orderDto.setFlight(ticketOrderEntity.getFlight());
+        orderDto.setClassType(ticketOrderEntity.getClassType());
+        orderDto.setContactMobile(ticketOrderEntity.getContactMobile());
+        orderDto.setContactName(ticketOrderEntity.getContactName());
+        orderDto.setStatus(ticketOrderEntity.getStatus());
+        orderDto.setCreatedAt(ticketOrderEntity.getCreatedAt());
         return orderDto;
     }
 
     public static List<OrderMessage.Passenger> transferPassenger(List<PassengerEntity> passengerEntities) {
-        return passengerEntities.stream().map(passengerEntity -> {
-            OrderMessage.Passenger passenger = OrderMessage.Passenger.builder().build();
-            BeanUtils.copyProperties(passengerEntity, passenger);
-            return passenger;
-        }).collect(Collectors.toList());
+        List<OrderMessage.Passenger> passengers = new ArrayList<>(passengerEntities.size());
+        for (PassengerEntity passengerEntity : passengerEntities) {
+            passengers.add(new OrderMessage.Passenger(passengerEntity.getName(), passengerEntity.getAgeType(), passengerEntity.getIdentificationNumber(),
+                                                      passengerEntity.getMobile(), passengerEntity.getPrice(), passengerEntity.getBaggageWeight(),
+                                                      passengerEntity.getInsuranceId(), passengerEntity.getInsuranceName(),
+                                                      passengerEntity.getInsurancePrice()));
+        }
+        return passengers;
     }
 }
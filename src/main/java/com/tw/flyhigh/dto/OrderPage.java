@@ -0,0 +1,20 @@
+package com.tw.flyhigh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderPage {
+    private List<Order> orders;
+    /**
+     * 下一页游标，没有更多订单时为 null
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.tw.flyhigh.dto;
+
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@ApiModel("订单状态事件")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusEventDto {
+    @ApiModelProperty("目标状态")
+    @NotNull
+    private OrderStatusEnum status;
+}
@@ -0,0 +1,30 @@
+package com.tw.flyhigh.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@ApiModel("异步下单受理凭证")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderTicket {
+    public static final String PENDING = "PENDING";
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    @ApiModelProperty("受理凭证")
+    private String token;
+    @ApiModelProperty("处理状态：PENDING/CREATED/FAILED")
+    private String status;
+    @ApiModelProperty("创建成功的订单")
+    private Order order;
+    @ApiModelProperty("失败错误码")
+    private String errorCode;
+    @ApiModelProperty("失败原因")
+    private String message;
+}
@@ -0,0 +1,43 @@
+package com.tw.flyhigh.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 不继承 AbstractEntity：relay 按 id 顺序投递，id 必须随写入时间单调递增，
+ * 各实例按段分配的主键会让后写入的事件排在前面，因此保留数据库自增主键
+ */
+@Entity
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "order_outbox")
+public class OrderOutboxEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long orderId;
+    /**
+     * payload 的编码格式，见 OrderMessageCodec
+     */
+    private String contentType;
+    @Lob
+    private byte[] payload;
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
@@ -8,11 +8,14 @@ import lombok.experimental.SuperBuilder;
 import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
 
+import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
@@ -23,7 +26,10 @@ import static com.google.common.collect.Lists.newArrayList;
 @SuperBuilder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "ticket_order")
+@Table(name = "ticket_order",
+    uniqueConstraints = @UniqueConstraint(name = "uk_ticket_order_user_idempotency", columnNames = {"user_id", "idempotency_key"}),
+    indexes = {@Index(name = "idx_ticket_order_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_ticket_order_status", columnList = "status, id")})
 public class TicketOrderEntity extends AbstractEntity {
     private Long userId;
     private String flight;
@@ -31,13 +37,18 @@ public class TicketOrderEntity extends AbstractEntity {
     private String contactMobile;
     private String contactName;
     private String status;
+    private String idempotencyKey;
+    /**
+     * 带幂等键的下单请求体摘要，同一个键再次提交不同内容时拒绝
+     */
+    private String idempotencyRequestHash;
 
-    @OneToMany(mappedBy = "order", orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @OrderBy("createdAt DESC")
     @Fetch(value = FetchMode.SUBSELECT)
     private List<TicketOrderEventEntity> events = newArrayList();
 
-    @OneToMany(mappedBy = "order", orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @Fetch(value = FetchMode.SUBSELECT)
     private List<PassengerEntity> passengers = newArrayList();
 }
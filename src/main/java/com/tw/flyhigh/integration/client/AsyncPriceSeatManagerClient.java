@@ -0,0 +1,238 @@
+package com.tw.flyhigh.integration.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.common.exception.ReserveException;
+import com.tw.flyhigh.common.exception.SeatServiceUnavailableException;
+import com.tw.flyhigh.config.PriceSeatManagerHttpProperties;
+import com.tw.flyhigh.config.PriceSeatManagerResilienceProperties;
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.dto.ReleaseSeatRequest;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * price-seat-manager 的非阻塞客户端：请求由 NIO 连接池收发，等待响应时不占用调用线程。
+ * 返回的 future 在回调线程池上完成，调用方的后续处理不会阻塞 IO 线程。
+ * 每个接口一个熔断器，熔断、网络异常、超时和 5xx 以 SeatServiceUnavailableException 完成，4xx 以 ReserveException 完成；
+ * 不做重试和对冲，需要时由调用方决定。
+ */
+@Slf4j
+@Component
+public class AsyncPriceSeatManagerClient {
+    private final CloseableHttpAsyncClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final ExecutorService callbackExecutor;
+    private final Endpoint getFlightDetail;
+    private final Endpoint reserveSeat;
+    private final Endpoint releaseSeat;
+
+    @Autowired
+    public AsyncPriceSeatManagerClient(CloseableHttpAsyncClient priceSeatManagerAsyncHttpClient, ObjectMapper objectMapper,
+                                       @Value("${third.price-seat-manager.url}") String url, PriceSeatManagerHttpProperties httpProperties,
+                                       PriceSeatManagerResilienceProperties resilienceProperties, MeterRegistry meterRegistry) {
+        this(priceSeatManagerAsyncHttpClient, objectMapper, url, httpProperties, resilienceProperties, meterRegistry, System::nanoTime,
+             Executors.newFixedThreadPool(httpProperties.getCallbackThreads(),
+                                          new ThreadFactoryBuilder().setNameFormat("price-seat-manager-callback-%d").setDaemon(true).build()));
+    }
+
+    AsyncPriceSeatManagerClient(CloseableHttpAsyncClient httpClient, ObjectMapper objectMapper, String url, PriceSeatManagerHttpProperties httpProperties,
+                                PriceSeatManagerResilienceProperties resilienceProperties, MeterRegistry meterRegistry, LongSupplier nanoClock,
+                                ExecutorService callbackExecutor) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = url + "/seats";
+        this.callbackExecutor = callbackExecutor;
+        this.getFlightDetail = new Endpoint("getFlightDetail", httpProperties, resilienceProperties, meterRegistry, nanoClock);
+        this.reserveSeat = new Endpoint("reserveSeat", httpProperties, resilienceProperties, meterRegistry, nanoClock);
+        this.releaseSeat = new Endpoint("releaseSeat", httpProperties, resilienceProperties, meterRegistry, nanoClock);
+    }
+
+    public CompletableFuture<FlightDetail> getFlightDetail(String flight) {
+        return execute(getFlightDetail, new HttpGet(baseUrl + "/" + UriUtils.encodePathSegment(flight, StandardCharsets.UTF_8)), FlightDetail.class);
+    }
+
+    public CompletableFuture<Boolean> reserveSeat(ReserveSeatRequest reserveSeatRequest) {
+        return post(reserveSeat, "/reservation", reserveSeatRequest);
+    }
+
+    public CompletableFuture<Boolean> releaseSeat(ReleaseSeatRequest releaseSeatRequest) {
+        return post(releaseSeat, "/release", releaseSeatRequest);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        callbackExecutor.shutdown();
+    }
+
+    private CompletableFuture<Boolean> post(Endpoint endpoint, String path, Object body) {
+        HttpPost request = new HttpPost(baseUrl + path);
+        try {
+            request.setEntity(new ByteArrayEntity(objectMapper.writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+        } catch (JsonProcessingException e) {
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            result.completeExceptionally(new IllegalArgumentException("can not serialize " + body, e));
+            return result;
+        }
+        return execute(endpoint, request, Boolean.class);
+    }
+
+    private <T> CompletableFuture<T> execute(Endpoint endpoint, HttpRequestBase request, Class<T> type) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!endpoint.circuitBreaker.tryAcquire()) {
+            endpoint.rejected.record(0, TimeUnit.NANOSECONDS);
+            result.completeExceptionally(new SeatServiceUnavailableException("price-seat-manager " + endpoint.name + " circuit is open"));
+            return result;
+        }
+        request.setConfig(endpoint.requestConfig);
+        request.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+        long start = System.nanoTime();
+        httpClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                T value;
+                try {
+                    value = read(endpoint, response, type);
+                } catch (RuntimeException e) {
+                    failed(e, e instanceof SeatServiceUnavailableException);
+                    return;
+                }
+                endpoint.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                callback(() -> result.complete(value));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                endpoint.circuitBreaker.onFailure();
+                failed(new SeatServiceUnavailableException("price-seat-manager " + endpoint.name + " failed: " + e), true);
+            }
+
+            @Override
+            public void cancelled() {
+                endpoint.circuitBreaker.onFailure();
+                failed(new SeatServiceUnavailableException("price-seat-manager " + endpoint.name + " cancelled"), true);
+            }
+
+            private void failed(RuntimeException e, boolean warn) {
+                if (warn) {
+                    log.warn(e.getMessage());
+                }
+                endpoint.failure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                callback(() -> result.completeExceptionally(e));
+            }
+        });
+        return result;
+    }
+
+    private <T> T read(Endpoint endpoint, HttpResponse response, Class<T> type) {
+        int status = response.getStatusLine().getStatusCode();
+        byte[] body;
+        try {
+            body = response.getEntity() == null ? new byte[0] : EntityUtils.toByteArray(response.getEntity());
+        } catch (IOException e) {
+            endpoint.circuitBreaker.onFailure();
+            throw new SeatServiceUnavailableException("price-seat-manager " + endpoint.name + " failed: " + e);
+        }
+        if (status >= 500) {
+            endpoint.circuitBreaker.onFailure();
+            throw new SeatServiceUnavailableException("price-seat-manager " + endpoint.name + " returned " + status);
+        }
+        // 4xx 说明下游正常处理了请求，不计入失败
+        endpoint.circuitBreaker.onSuccess();
+        if (status >= 400) {
+            throw new ReserveException("price-seat-manager " + endpoint.name + " returned " + status);
+        }
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new ReserveException("can not read price-seat-manager " + endpoint.name + " response: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 在回调线程池上完成 future，线程池已关闭时在 IO 线程上完成
+     */
+    private void callback(Runnable completion) {
+        try {
+            callbackExecutor.execute(completion);
+        } catch (RejectedExecutionException e) {
+            completion.run();
+        }
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final RequestConfig requestConfig;
+        private final CircuitBreaker circuitBreaker;
+        private final Timer success;
+        private final Timer failure;
+        private final Timer rejected;
+
+        private Endpoint(String name, PriceSeatManagerHttpProperties httpProperties, PriceSeatManagerResilienceProperties resilienceProperties,
+                         MeterRegistry meterRegistry, LongSupplier nanoClock) {
+            this.name = name;
+            PriceSeatManagerHttpProperties.Timeout defaults = httpProperties.getDefaults();
+            PriceSeatManagerHttpProperties.Timeout timeout = defaults;
+            for (Map.Entry<String, PriceSeatManagerHttpProperties.Timeout> method : httpProperties.getMethods().entrySet()) {
+                // 配置绑定时 map 的键会被转成小写，按小写方法名匹配
+                if (method.getKey().equalsIgnoreCase(name)) {
+                    timeout = method.getValue();
+                }
+            }
+            Duration connectTimeout = timeout.getConnectTimeout() == null ? defaults.getConnectTimeout() : timeout.getConnectTimeout();
+            Duration readTimeout = timeout.getReadTimeout() == null ? defaults.getReadTimeout() : timeout.getReadTimeout();
+            this.requestConfig = RequestConfig.custom()
+                                              .setConnectionRequestTimeout((int) httpProperties.getConnectionRequestTimeout().toMillis())
+                                              .setConnectTimeout((int) connectTimeout.toMillis())
+                                              .setSocketTimeout((int) readTimeout.toMillis())
+                                              .build();
+            this.circuitBreaker = new CircuitBreaker(resilienceProperties.getCircuitWindowSize(), resilienceProperties.getCircuitMinimumCalls(),
+                                                     resilienceProperties.getCircuitFailureRate(), resilienceProperties.getCircuitOpenDuration(),
+                                                     resilienceProperties.getCircuitHalfOpenCalls(), nanoClock);
+            this.success = timer(meterRegistry, name, "success");
+            this.failure = timer(meterRegistry, name, "failure");
+            this.rejected = timer(meterRegistry, name, "rejected");
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String method, String outcome) {
+            return Timer.builder("price.seat.manager.async.requests")
+                        .description("non-blocking price-seat-manager calls")
+                        .tags("method", method, "outcome", outcome)
+                        .register(meterRegistry);
+        }
+    }
+}
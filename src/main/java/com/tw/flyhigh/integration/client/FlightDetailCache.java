@@ -0,0 +1,80 @@
+package com.tw.flyhigh.integration.client;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.tw.flyhigh.config.FlightDetailCacheProperties;
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.integration.mq.CacheInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 航班详情缓存：同一航班并发未命中时只加载一次，临近过期时后台异步刷新，刷新期间继续返回旧值。
+ */
+@Component
+public class FlightDetailCache {
+    private static final String INVALIDATION_TYPE = "flight";
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Executor refreshExecutor;
+    private final LoadingCache<String, FlightDetail> cache;
+
+    @Autowired
+    public FlightDetailCache(PriceSeatManagerClient priceSeatManagerClient, FlightDetailCacheProperties properties, MeterRegistry meterRegistry,
+                             CacheInvalidationBus cacheInvalidationBus) {
+        this(priceSeatManagerClient, properties, meterRegistry, cacheInvalidationBus, Ticker.systemTicker(), Executors.newFixedThreadPool(properties.getRefreshThreads(),
+            new ThreadFactoryBuilder().setNameFormat("flight-detail-refresh-%d").setDaemon(true).build()));
+    }
+
+    FlightDetailCache(PriceSeatManagerClient priceSeatManagerClient, FlightDetailCacheProperties properties, MeterRegistry meterRegistry,
+                      CacheInvalidationBus cacheInvalidationBus, Ticker ticker, Executor refreshExecutor) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.refreshExecutor = refreshExecutor;
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumSize(properties.getMaximumSize())
+                                 .expireAfterWrite(properties.getTtl().toNanos(), TimeUnit.NANOSECONDS)
+                                 .refreshAfterWrite(properties.getRefreshAfter().toNanos(), TimeUnit.NANOSECONDS)
+                                 .ticker(ticker)
+                                 .recordStats()
+                                 .build(CacheLoader.asyncReloading(CacheLoader.from(priceSeatManagerClient::getFlightDetail), refreshExecutor));
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "flight.detail", Collections.emptyList());
+        cacheInvalidationBus.subscribe(INVALIDATION_TYPE, cache::invalidate);
+    }
+
+    public FlightDetail get(String flight) {
+        try {
+            return cache.getUnchecked(flight);
+        } catch (UncheckedExecutionException e) {
+            // 保持与直接调用 price-seat-manager 时相同的异常，由 ExceptionHandlerAdvice 统一处理
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(String flight) {
+        cache.invalidate(flight);
+        cacheInvalidationBus.publish(INVALIDATION_TYPE, flight);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor instanceof ExecutorService) {
+            ((ExecutorService) refreshExecutor).shutdown();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.tw.flyhigh.integration.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录从连接池取连接等待时间的连接池。连接数、等待数等由 micrometer 的 binder 导出，
+ * 另外导出已借出连接占总连接数的比例
+ */
+public class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+    private final Timer leaseWait;
+
+    public MeteredConnectionManager(String name, Duration timeToLive, MeterRegistry meterRegistry) {
+        super(timeToLive.toMillis(), TimeUnit.MILLISECONDS);
+        new PoolingHttpClientConnectionManagerMetricsBinder(this, name).bindTo(meterRegistry);
+        this.leaseWait = Timer.builder("httpcomponents.httpclient.pool.lease.wait")
+                              .description("time spent waiting for a pooled connection")
+                              .tag("httpclient", name)
+                              .register(meterRegistry);
+        Gauge.builder("httpcomponents.httpclient.pool.utilization", this,
+                      pool -> (double) pool.getTotalStats().getLeased() / pool.getMaxTotal())
+             .description("leased connections as a share of the pool size")
+             .tag("httpclient", name)
+             .register(meterRegistry);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout, timeUnit);
+                } finally {
+                    leaseWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.tw.flyhigh.integration.client;
+
+import com.tw.flyhigh.config.PriceSeatManagerHttpProperties;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 按 Feign 方法名选择连接和读取超时：查询航班详情可以快速失败，预留座位等写操作给更长的读取时间
+ */
+public class PerMethodTimeoutClient implements Client {
+    private final Client delegate;
+    private final Request.Options defaults;
+    private final Map<String, Request.Options> methods = new HashMap<>();
+
+    public PerMethodTimeoutClient(Client delegate, PriceSeatManagerHttpProperties properties) {
+        this.delegate = delegate;
+        PriceSeatManagerHttpProperties.Timeout defaultTimeout = properties.getDefaults();
+        this.defaults = options(defaultTimeout.getConnectTimeout(), defaultTimeout.getReadTimeout());
+        // 配置绑定时 map 的键会被转成小写，按小写方法名匹配
+        properties.getMethods().forEach((method, timeout) -> methods.put(method.toLowerCase(Locale.ROOT), options(
+            timeout.getConnectTimeout() == null ? defaultTimeout.getConnectTimeout() : timeout.getConnectTimeout(),
+            timeout.getReadTimeout() == null ? defaultTimeout.getReadTimeout() : timeout.getReadTimeout())));
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        return delegate.execute(request, optionsFor(request));
+    }
+
+    Request.Options optionsFor(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        if (template == null || template.methodMetadata() == null) {
+            return defaults;
+        }
+        // configKey 形如 PriceSeatManagerClient#getFlightDetail(String)
+        String configKey = template.methodMetadata().configKey();
+        String method = configKey.substring(configKey.indexOf('#') + 1, configKey.indexOf('('));
+        return methods.getOrDefault(method.toLowerCase(Locale.ROOT), defaults);
+    }
+
+    private static Request.Options options(Duration connectTimeout, Duration readTimeout) {
+        return new Request.Options((int) connectTimeout.toMillis(), (int) readTimeout.toMillis(), true);
+    }
+}
@@ -10,8 +10,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(url = "${third.price-seat-manager.url}/seats", name = "priceSeatManagerClient")
+/**
+ * Feign 生成的实现只由 ResilientPriceSeatManagerClient 使用，其他地方注入的是带重试预算和熔断的实现
+ */
+@FeignClient(url = "${third.price-seat-manager.url}/seats", name = "priceSeatManagerClient", qualifier = PriceSeatManagerClient.FEIGN_CLIENT,
+    primary = false)
 public interface PriceSeatManagerClient {
+    String FEIGN_CLIENT = "feignPriceSeatManagerClient";
 
     @GetMapping(path = "/{flight}", produces = MediaType.APPLICATION_JSON_VALUE)
     FlightDetail getFlightDetail(@PathVariable("flight") String flight);
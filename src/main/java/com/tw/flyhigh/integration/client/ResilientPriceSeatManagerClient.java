@@ -0,0 +1,267 @@
+package com.tw.flyhigh.integration.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.common.exception.SeatServiceUnavailableException;
+import com.tw.flyhigh.config.PriceSeatManagerResilienceProperties;
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.dto.ReleaseSeatRequest;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.ConnectException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * price-seat-manager 客户端的容错层，替代 Feign Retryer 在调用线程上的盲目重试：
+ * <ul>
+ * <li>重试受重试预算限制，预留和释放座位只在请求未发出（连接失败）时重试</li>
+ * <li>每个接口一个熔断器，熔断时预留座位直接抛出 SeatServiceUnavailableException，查询航班详情返回最近一次成功的结果</li>
+ * <li>查询航班详情是幂等的 GET，超过 hedgeDelay 未返回时再发一次，取先成功的结果</li>
+ * </ul>
+ */
+@Slf4j
+@Primary
+@Component
+public class ResilientPriceSeatManagerClient implements PriceSeatManagerClient {
+    private final PriceSeatManagerClient delegate;
+    private final PriceSeatManagerResilienceProperties properties;
+    private final RetryBudget retryBudget;
+    private final ExecutorService hedgeExecutor;
+    private final Cache<String, FlightDetail> lastKnownGood;
+    private final Endpoint getFlightDetail;
+    private final Endpoint reserveSeat;
+    private final Endpoint releaseSeat;
+    private final Counter hedges;
+    private final Counter fallbacks;
+
+    @Autowired
+    public ResilientPriceSeatManagerClient(@Qualifier(PriceSeatManagerClient.FEIGN_CLIENT) PriceSeatManagerClient delegate,
+                                           PriceSeatManagerResilienceProperties properties, MeterRegistry meterRegistry) {
+        this(delegate, properties, meterRegistry, System::nanoTime,
+             new ThreadPoolExecutor(properties.getHedgeThreads(), properties.getHedgeThreads(), 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                                    new ThreadFactoryBuilder().setNameFormat("price-seat-manager-hedge-%d").setDaemon(true).build()));
+    }
+
+    ResilientPriceSeatManagerClient(PriceSeatManagerClient delegate, PriceSeatManagerResilienceProperties properties, MeterRegistry meterRegistry,
+                                    LongSupplier nanoClock, ExecutorService hedgeExecutor) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.retryBudget = new RetryBudget(properties.getRetryRatio(), properties.getMinRetriesPerSecond(), nanoClock);
+        this.hedgeExecutor = hedgeExecutor;
+        this.lastKnownGood = CacheBuilder.newBuilder().maximumSize(properties.getLastKnownGoodSize()).build();
+        this.getFlightDetail = new Endpoint("getFlightDetail", meterRegistry, nanoClock, properties);
+        this.reserveSeat = new Endpoint("reserveSeat", meterRegistry, nanoClock, properties);
+        this.releaseSeat = new Endpoint("releaseSeat", meterRegistry, nanoClock, properties);
+        this.hedges = Counter.builder("price.seat.manager.hedges")
+                             .description("hedged getFlightDetail requests sent")
+                             .register(meterRegistry);
+        this.fallbacks = Counter.builder("price.seat.manager.fallbacks")
+                                .description("getFlightDetail calls answered with the last known good value")
+                                .register(meterRegistry);
+    }
+
+    @Override
+    public FlightDetail getFlightDetail(String flight) {
+        FlightDetail flightDetail;
+        try {
+            flightDetail = call(getFlightDetail, () -> hedged(flight), ResilientPriceSeatManagerClient::isUnavailable);
+        } catch (RuntimeException e) {
+            FlightDetail last = lastKnownGood.getIfPresent(flight);
+            if (last == null || !isUnavailable(e)) {
+                throw e;
+            }
+            fallbacks.increment();
+            log.warn("serve last known flight detail of {}: {}", flight, e.getMessage());
+            return last;
+        }
+        if (flightDetail != null) {
+            lastKnownGood.put(flight, flightDetail);
+        }
+        return flightDetail;
+    }
+
+    @Override
+    public boolean reserveSeat(ReserveSeatRequest reserveSeatRequest) {
+        return call(reserveSeat, () -> delegate.reserveSeat(reserveSeatRequest), ResilientPriceSeatManagerClient::notSent);
+    }
+
+    @Override
+    public boolean releaseSeat(ReleaseSeatRequest releaseSeatRequest) {
+        return call(releaseSeat, () -> delegate.releaseSeat(releaseSeatRequest), ResilientPriceSeatManagerClient::notSent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    private <T> T call(Endpoint endpoint, Supplier<T> request, Predicate<RuntimeException> retryable) {
+        retryBudget.onRequest();
+        long start = System.nanoTime();
+        Timer outcome = endpoint.failure;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                if (!endpoint.circuitBreaker.tryAcquire()) {
+                    outcome = endpoint.rejected;
+                    throw new SeatServiceUnavailableException("price-seat-manager " + endpoint.name + " circuit is open");
+                }
+                try {
+                    T result = request.get();
+                    endpoint.circuitBreaker.onSuccess();
+                    outcome = endpoint.success;
+                    return result;
+                } catch (RuntimeException e) {
+                    // 4xx 说明下游正常处理了请求，不计入失败
+                    if (e instanceof FeignException.FeignClientException) {
+                        endpoint.circuitBreaker.onSuccess();
+                    } else {
+                        endpoint.circuitBreaker.onFailure();
+                    }
+                    if (attempt >= properties.getMaxAttempts() || !retryable.test(e) || !retryBudget.tryRetry()) {
+                        throw e;
+                    }
+                    endpoint.retries.increment();
+                }
+            }
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private FlightDetail hedged(String flight) {
+        if (!properties.isHedgeEnabled()) {
+            return delegate.getFlightDetail(flight);
+        }
+        CompletableFuture<FlightDetail> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(() -> delegate.getFlightDetail(flight), hedgeExecutor);
+        } catch (RejectedExecutionException e) {
+            return delegate.getFlightDetail(flight);
+        }
+        try {
+            return primary.get(properties.getHedgeDelay().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 超过 hedgeDelay，发送对冲请求
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SeatServiceUnavailableException("interrupted waiting for flight detail of " + flight);
+        }
+        CompletableFuture<FlightDetail> hedge;
+        try {
+            hedge = retryBudget.tryRetry() ? CompletableFuture.supplyAsync(() -> delegate.getFlightDetail(flight), hedgeExecutor) : null;
+        } catch (RejectedExecutionException e) {
+            hedge = null;
+        }
+        if (hedge == null) {
+            return join(primary);
+        }
+        hedges.increment();
+        return join(firstSuccessful(primary, hedge));
+    }
+
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        for (CompletableFuture<T> future : Arrays.asList(first, second)) {
+            future.whenComplete((value, e) -> {
+                if (e == null) {
+                    result.complete(value);
+                } else if (failed.incrementAndGet() == 2) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e instanceof RuntimeException ? (RuntimeException) e : new CompletionException(e);
+    }
+
+    /**
+     * 下游不可用：熔断、网络异常或 5xx
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof SeatServiceUnavailableException || e instanceof RetryableException || e instanceof FeignException.FeignServerException;
+    }
+
+    /**
+     * 连接没有建立，请求一定没有发出，非幂等的写请求也可以重试
+     */
+    private static boolean notSent(RuntimeException e) {
+        return e instanceof RetryableException && (e.getCause() instanceof ConnectException || e.getCause() instanceof ConnectTimeoutException);
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final CircuitBreaker circuitBreaker;
+        private final Counter retries;
+        private final Timer success;
+        private final Timer failure;
+        private final Timer rejected;
+
+        private Endpoint(String name, MeterRegistry meterRegistry, LongSupplier nanoClock, PriceSeatManagerResilienceProperties properties) {
+            this.name = name;
+            this.circuitBreaker = new CircuitBreaker(properties.getCircuitWindowSize(), properties.getCircuitMinimumCalls(), properties.getCircuitFailureRate(),
+                                                     properties.getCircuitOpenDuration(), properties.getCircuitHalfOpenCalls(), nanoClock);
+            this.retries = Counter.builder("price.seat.manager.retries")
+                                  .description("price-seat-manager requests retried within the retry budget")
+                                  .tag("method", name)
+                                  .register(meterRegistry);
+            this.success = timer(meterRegistry, name, "success");
+            this.failure = timer(meterRegistry, name, "failure");
+            this.rejected = timer(meterRegistry, name, "rejected");
+            Gauge.builder("price.seat.manager.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                 .description("0 closed, 1 open, 2 half open")
+                 .tag("method", name)
+                 .register(meterRegistry);
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String method, String outcome) {
+            return Timer.builder("price.seat.manager.requests")
+                        .description("price-seat-manager calls including retries and hedges")
+                        .tags("method", method, "outcome", outcome)
+                        .register(meterRegistry);
+        }
+    }
+}
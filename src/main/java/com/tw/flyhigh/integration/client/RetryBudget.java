@@ -0,0 +1,64 @@
+package com.tw.flyhigh.integration.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 重试预算：每个请求存入 ratio 的额度，每次重试（包括对冲请求）取出 1，额度不足时不重试，
+ * 下游故障时重试量不会超过正常流量的 ratio 倍。流量很小时每秒另有 minPerSecond 次重试额度。
+ */
+public class RetryBudget {
+    /**
+     * 额度上限，避免长时间无故障后积累的额度在故障开始时集中放出
+     */
+    private static final double MAX_BALANCE = 100;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double ratio;
+    private final int minPerSecond;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double balance;
+    private int floor;
+    private long floorRefilledAt;
+
+    public RetryBudget(double ratio, int minPerSecond, LongSupplier nanoClock) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        this.nanoClock = nanoClock;
+        this.floor = minPerSecond;
+        this.floorRefilledAt = nanoClock.getAsLong();
+    }
+
+    public void onRequest() {
+        lock.lock();
+        try {
+            balance = Math.min(MAX_BALANCE, balance + ratio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean tryRetry() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            if (now - floorRefilledAt >= SECOND) {
+                floor = minPerSecond;
+                floorRefilledAt = now;
+            }
+            if (floor > 0) {
+                floor--;
+                return true;
+            }
+            if (balance >= 1) {
+                balance -= 1;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tw.flyhigh.integration.client;
+
+import lombok.Value;
+
+@Value
+class SeatKey {
+    String flight;
+    String classType;
+
+    @Override
+    public String toString() {
+        return flight + "/" + classType;
+    }
+}
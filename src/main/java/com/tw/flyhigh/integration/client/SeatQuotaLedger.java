@@ -0,0 +1,155 @@
+package com.tw.flyhigh.integration.client;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.config.SeatLeaseProperties;
+import com.tw.flyhigh.dto.ReleaseSeatRequest;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地座位额度账本：按 (flight, classType) 预先向 price-seat-manager 租用一批座位，
+ * 下单时优先无锁扣减本地额度，额度不足时由调用方回退到远程预留。
+ */
+@Slf4j
+@Component
+public class SeatQuotaLedger {
+    private final PriceSeatManagerClient priceSeatManagerClient;
+    private final SeatLeaseProperties properties;
+    private final Executor refillExecutor;
+    private final ConcurrentMap<SeatKey, SeatLease> leases = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SeatQuotaLedger(PriceSeatManagerClient priceSeatManagerClient, SeatLeaseProperties properties) {
+        this(priceSeatManagerClient, properties, Executors.newFixedThreadPool(properties.getRefillThreads(),
+            new ThreadFactoryBuilder().setNameFormat("seat-lease-refill-%d").setDaemon(true).build()));
+    }
+
+    SeatQuotaLedger(PriceSeatManagerClient priceSeatManagerClient, SeatLeaseProperties properties, Executor refillExecutor) {
+        this.priceSeatManagerClient = priceSeatManagerClient;
+        this.properties = properties;
+        this.refillExecutor = refillExecutor;
+    }
+
+    /**
+     * 尝试从本地额度扣减座位，返回 false 时调用方需要自行向 price-seat-manager 预留
+     */
+    public boolean tryAcquire(String flight, String classType, int number) {
+        if (!properties.isEnabled() || number > properties.getBlockSize()) {
+            return false;
+        }
+        SeatLease lease = leases.computeIfAbsent(new SeatKey(flight, classType), SeatLease::new);
+        boolean acquired = lease.tryTake(number);
+        if (lease.available.get() < properties.getLowWatermark()) {
+            scheduleRefill(lease);
+        }
+        return acquired;
+    }
+
+    public int available(String flight, String classType) {
+        SeatLease lease = leases.get(new SeatKey(flight, classType));
+        return lease == null ? 0 : lease.available.get();
+    }
+
+    @Scheduled(fixedDelayString = "${order.seat-lease.sweep-interval-ms:30000}")
+    public void releaseIdleLeases() {
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        long now = System.nanoTime();
+        leases.values().stream()
+              .filter(lease -> now - lease.lastUsedAt > idleNanos)
+              .forEach(this::release);
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        leases.values().forEach(this::release);
+        if (refillExecutor instanceof ExecutorService) {
+            ((ExecutorService) refillExecutor).shutdown();
+        }
+    }
+
+    private void scheduleRefill(SeatLease lease) {
+        if (System.nanoTime() - lease.backoffUntil < 0 || !lease.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> refill(lease));
+        } catch (RejectedExecutionException e) {
+            lease.refilling.set(false);
+        }
+    }
+
+    private void refill(SeatLease lease) {
+        int blockSize = properties.getBlockSize();
+        try {
+            boolean leased = priceSeatManagerClient.reserveSeat(new ReserveSeatRequest(lease.key.getFlight(), lease.key.getClassType(), blockSize));
+            if (leased) {
+                lease.available.addAndGet(blockSize);
+            } else {
+                backoff(lease);
+            }
+        } catch (RuntimeException e) {
+            log.warn("lease {} seats for {} failed: {}", blockSize, lease.key, e.getMessage());
+            backoff(lease);
+        } finally {
+            lease.refilling.set(false);
+        }
+    }
+
+    private void release(SeatLease lease) {
+        int unused = lease.available.getAndSet(0);
+        if (unused == 0) {
+            return;
+        }
+        try {
+            if (priceSeatManagerClient.releaseSeat(new ReleaseSeatRequest(lease.key.getFlight(), lease.key.getClassType(), unused))) {
+                return;
+            }
+            log.warn("release {} leased seats for {} was refused", unused, lease.key);
+        } catch (RuntimeException e) {
+            log.warn("release {} leased seats for {} failed: {}", unused, lease.key, e.getMessage());
+        }
+        lease.available.addAndGet(unused);
+    }
+
+    private void backoff(SeatLease lease) {
+        lease.backoffUntil = System.nanoTime() + properties.getExhaustedBackoff().toNanos();
+    }
+
+    static final class SeatLease {
+        private final SeatKey key;
+        private final AtomicInteger available = new AtomicInteger();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile long lastUsedAt = System.nanoTime();
+        private volatile long backoffUntil = System.nanoTime();
+
+        SeatLease(SeatKey key) {
+            this.key = key;
+        }
+
+        boolean tryTake(int number) {
+            lastUsedAt = System.nanoTime();
+            for (; ; ) {
+                int current = available.get();
+                if (current < number) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - number)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.tw.flyhigh.integration.client;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.common.exception.ReserveException;
+import com.tw.flyhigh.config.SeatBatchProperties;
+import com.tw.flyhigh.dto.ReleaseSeatRequest;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 合并同一航班舱位在短时间窗口内的并发座位预留，一次性向 price-seat-manager 预留总数，
+ * 再把结果拆分给各个等待的下单请求。每个订单仍然是全部成功或全部失败。
+ */
+@Slf4j
+@Component
+public class SeatReservationBatcher {
+    private final PriceSeatManagerClient priceSeatManagerClient;
+    private final SeatBatchProperties properties;
+    private final ScheduledExecutorService windowScheduler;
+    private final ExecutorService dispatchExecutor;
+    private final ConcurrentMap<SeatKey, Batch> openBatches = new ConcurrentHashMap<>();
+    private final DistributionSummary batchSize;
+    private final Timer waitTime;
+
+    public SeatReservationBatcher(PriceSeatManagerClient priceSeatManagerClient, SeatBatchProperties properties, MeterRegistry meterRegistry) {
+        this.priceSeatManagerClient = priceSeatManagerClient;
+        this.properties = properties;
+        this.windowScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("seat-batch-window-%d").setDaemon(true).build());
+        this.dispatchExecutor = Executors.newFixedThreadPool(properties.getDispatchThreads(),
+            new ThreadFactoryBuilder().setNameFormat("seat-batch-dispatch-%d").setDaemon(true).build());
+        this.batchSize = DistributionSummary.builder("seat.reservation.batch.size")
+                                            .description("number of order reservations coalesced into one remote call")
+                                            .register(meterRegistry);
+        this.waitTime = Timer.builder("seat.reservation.batch.wait")
+                             .description("time an order reservation waits for its batch to be dispatched")
+                             .register(meterRegistry);
+    }
+
+    public boolean reserve(ReserveSeatRequest reserveSeatRequest) {
+        if (!properties.isEnabled()) {
+            return priceSeatManagerClient.reserveSeat(reserveSeatRequest);
+        }
+        CompletableFuture<Boolean> result = enqueue(reserveSeatRequest).result;
+        try {
+            return result.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ReserveException(e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new ReserveException("seat reservation timed out");
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ReserveException("seat reservation interrupted");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        windowScheduler.shutdown();
+        dispatchExecutor.shutdown();
+    }
+
+    private PendingReservation enqueue(ReserveSeatRequest reserveSeatRequest) {
+        SeatKey key = new SeatKey(reserveSeatRequest.getFlight(), reserveSeatRequest.getClassType());
+        PendingReservation pending = new PendingReservation(reserveSeatRequest.getNumber());
+        for (; ; ) {
+            Batch batch = openBatches.computeIfAbsent(key, this::openBatch);
+            int size = batch.add(pending);
+            if (size > 0) {
+                if (size >= properties.getMaxBatchSize()) {
+                    seal(batch);
+                }
+                return pending;
+            }
+            openBatches.remove(key, batch);
+        }
+    }
+
+    private Batch openBatch(SeatKey key) {
+        Batch batch = new Batch(key);
+        windowScheduler.schedule(() -> seal(batch), properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    private void seal(Batch batch) {
+        if (batch.seal()) {
+            openBatches.remove(batch.key, batch);
+            dispatchExecutor.execute(() -> dispatch(batch));
+        }
+    }
+
+    private void dispatch(Batch batch) {
+        List<PendingReservation> reservations = batch.reservations;
+        long dispatchedAt = System.nanoTime();
+        batchSize.record(reservations.size());
+        reservations.forEach(pending -> waitTime.record(dispatchedAt - pending.enqueuedAt, TimeUnit.NANOSECONDS));
+
+        int total = reservations.stream().mapToInt(pending -> pending.number).sum();
+        try {
+            if (priceSeatManagerClient.reserveSeat(new ReserveSeatRequest(batch.key.getFlight(), batch.key.getClassType(), total))) {
+                reservations.forEach(pending -> complete(batch.key, pending, true));
+                return;
+            }
+        } catch (RuntimeException e) {
+            reservations.forEach(pending -> pending.result.completeExceptionally(e));
+            return;
+        }
+        if (reservations.size() == 1) {
+            complete(batch.key, reservations.get(0), false);
+            return;
+        }
+        // 合并预留失败只说明剩余座位不够整批，逐单重试以保证每个订单各自全部成功或全部失败
+        reservations.forEach(pending -> reserveSingle(batch.key, pending));
+    }
+
+    private void reserveSingle(SeatKey key, PendingReservation pending) {
+        if (pending.result.isDone()) {
+            return;
+        }
+        try {
+            complete(key, pending, priceSeatManagerClient.reserveSeat(new ReserveSeatRequest(key.getFlight(), key.getClassType(), pending.number)));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private void complete(SeatKey key, PendingReservation pending, boolean reserved) {
+        if (!pending.result.complete(reserved) && reserved) {
+            // 调用方已超时放弃，归还为其预留的座位
+            try {
+                priceSeatManagerClient.releaseSeat(new ReleaseSeatRequest(key.getFlight(), key.getClassType(), pending.number));
+            } catch (RuntimeException e) {
+                log.warn("release {} seats of abandoned reservation for {} failed: {}", pending.number, key, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Batch {
+        private final SeatKey key;
+        private final List<PendingReservation> reservations = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean sealed;
+
+        Batch(SeatKey key) {
+            this.key = key;
+        }
+
+        /**
+         * @return 加入后的批大小，批已封闭时返回 0
+         */
+        int add(PendingReservation pending) {
+            lock.lock();
+            try {
+                if (sealed) {
+                    return 0;
+                }
+                reservations.add(pending);
+                return reservations.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean seal() {
+            lock.lock();
+            try {
+                if (sealed) {
+                    return false;
+                }
+                sealed = true;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class PendingReservation {
+        private final int number;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        PendingReservation(int number) {
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.tw.flyhigh.integration.mq;
+
+import com.alibaba.fastjson.JSON;
+import com.rabbitmq.client.Channel;
+import com.tw.flyhigh.common.enums.QueueEnum;
+import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.config.AgentOrderIngestProperties;
+import com.tw.flyhigh.dto.BatchOrderResult;
+import com.tw.flyhigh.dto.CreateOrderDto;
+import com.tw.flyhigh.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 消费代理渠道订单队列：每次处理一批消息，校验通过的订单走批量下单，
+ * 无法解析或校验失败的消息转入死信队列。每条消息按自己的下单结果逐条确认：
+ * 创建成功和售罄等业务失败确认，座位服务或数据库异常导致的失败转入重试队列，等待 retryDelay 后回到订单队列，
+ * 超过 maxRetries 次后转入死信队列；批量下单整体抛出异常时整批转入重试队列。
+ */
+@Slf4j
+@Component
+public class AgentOrderListener {
+    /**
+     * 座位服务、数据库等基础设施异常对应的错误码，重新投递后可能成功
+     */
+    private static final Set<String> TRANSIENT_ERROR_CODES = new HashSet<>(Arrays.asList(ErrorCode.CRESERVE_EXCEPTION.getValue(),
+                                                                                          ErrorCode.CREATE_ORDER_EXCEPTION.getValue(),
+                                                                                          ErrorCode.SEAT_SERVICE_UNAVAILABLE.getValue()));
+    static final String RETRIES_HEADER = "x-agent-order-retries";
+    static final String ERROR_HEADER = "x-agent-order-error";
+    private static final long FORWARD_CONFIRM_TIMEOUT_MS = 5000;
+
+    private final OrderService orderService;
+    private final Validator validator;
+    private final RabbitTemplate rabbitTemplate;
+    private final int maxRetries;
+    private final Counter created;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Counter requeued;
+    private final DistributionSummary batchSize;
+    private final Timer lag;
+
+    public AgentOrderListener(OrderService orderService, Validator validator, RabbitTemplate rabbitTemplate, AgentOrderIngestProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.validator = validator;
+        this.rabbitTemplate = rabbitTemplate;
+        this.maxRetries = properties.getMaxRetries();
+        this.created = ingested(meterRegistry, BatchOrderResult.CREATED);
+        this.failed = ingested(meterRegistry, BatchOrderResult.FAILED);
+        this.rejected = ingested(meterRegistry, "REJECTED");
+        this.requeued = ingested(meterRegistry, "REQUEUED");
+        this.batchSize = DistributionSummary.builder("agent.order.ingest.batch.size")
+                                            .description("agent order messages handled per listener call")
+                                            .register(meterRegistry);
+        this.lag = Timer.builder("agent.order.ingest.lag")
+                        .description("time from the agent publishing an order to this service handling it")
+                        .register(meterRegistry);
+    }
+
+    @RabbitListener(queues = "#{orderQueue.name}", containerFactory = "agentOrderContainerFactory",
+        autoStartup = "${order.agent-ingest.enabled:false}")
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        batchSize.record(messages.size());
+        long now = System.currentTimeMillis();
+        List<CreateOrderDto> orders = new ArrayList<>(messages.size());
+        List<Message> accepted = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            Date timestamp = message.getMessageProperties().getTimestamp();
+            if (timestamp != null) {
+                lag.record(Math.max(0, now - timestamp.getTime()), TimeUnit.MILLISECONDS);
+            }
+            CreateOrderDto order = parse(message);
+            if (order == null) {
+                rejected.increment();
+                deadLetter(message, "malformed or invalid order", channel);
+            } else {
+                orders.add(order);
+                accepted.add(message);
+            }
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        List<BatchOrderResult> results;
+        try {
+            results = orderService.createOrders(orders);
+        } catch (RuntimeException e) {
+            log.error("ingest {} agent orders failed, retry later", orders.size(), e);
+            for (Message message : accepted) {
+                retry(message, e.getMessage(), channel);
+            }
+            return;
+        }
+        for (BatchOrderResult result : results) {
+            Message message = accepted.get(result.getIndex());
+            if (BatchOrderResult.CREATED.equals(result.getStatus())) {
+                created.increment();
+                channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+            } else if (TRANSIENT_ERROR_CODES.contains(result.getErrorCode())) {
+                log.warn("agent order failed, retry later: {} {}", result.getErrorCode(), result.getMessage());
+                retry(message, result.getErrorCode(), channel);
+            } else {
+                failed.increment();
+                log.info("agent order rejected: {} {}", result.getErrorCode(), result.getMessage());
+                channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+            }
+        }
+    }
+
+    private void retry(Message message, String error, Channel channel) throws IOException {
+        Integer retries = message.getMessageProperties().getHeader(RETRIES_HEADER);
+        int attempt = retries == null ? 1 : retries + 1;
+        if (attempt > maxRetries) {
+            rejected.increment();
+            deadLetter(message, "gave up after " + maxRetries + " retries: " + error, channel);
+            return;
+        }
+        requeued.increment();
+        message.getMessageProperties().setHeader(RETRIES_HEADER, attempt);
+        forward(message, QueueEnum.QUEUE_AGENT_RETRY, channel);
+    }
+
+    private void deadLetter(Message message, String error, Channel channel) throws IOException {
+        message.getMessageProperties().setHeader(ERROR_HEADER, error);
+        forward(message, QueueEnum.QUEUE_AGENT_DEAD_LETTER, channel);
+    }
+
+    /**
+     * 发送到重试或死信队列并收到 broker 确认后再确认原消息；发送失败或未确认时原消息重新入队，不会丢失
+     */
+    private void forward(Message message, QueueEnum target, Channel channel) throws IOException {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        CorrelationData correlationData = new CorrelationData();
+        try {
+            rabbitTemplate.send(target.getExchange(), target.getRouteKey(), message, correlationData);
+            CorrelationData.Confirm confirm = correlationData.getFuture().get(FORWARD_CONFIRM_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (!confirm.isAck() || correlationData.getReturnedMessage() != null) {
+                throw new AmqpException("not confirmed: " + confirm.getReason());
+            }
+        } catch (AmqpException | ExecutionException | TimeoutException e) {
+            log.error("forward agent order {} to {} failed, requeue: {}", message.getMessageProperties().getMessageId(), target.getName(), e.getMessage());
+            channel.basicNack(deliveryTag, false, true);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            channel.basicNack(deliveryTag, false, true);
+            return;
+        }
+        channel.basicAck(deliveryTag, false);
+    }
+
+    private CreateOrderDto parse(Message message) {
+        CreateOrderDto order;
+        try {
+            order = JSON.parseObject(message.getBody(), CreateOrderDto.class);
+        } catch (RuntimeException e) {
+            log.warn("drop malformed agent order {}: {}", message.getMessageProperties().getMessageId(), e.getMessage());
+            return null;
+        }
+        if (order == null) {
+            return null;
+        }
+        Set<ConstraintViolation<CreateOrderDto>> violations = validator.validate(order);
+        if (!violations.isEmpty()) {
+            log.warn("drop invalid agent order {}: {}", message.getMessageProperties().getMessageId(), violations.iterator().next().getMessage());
+            return null;
+        }
+        return order;
+    }
+
+    private static Counter ingested(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("agent.order.ingested")
+                      .description("agent order messages handled, by result")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+}
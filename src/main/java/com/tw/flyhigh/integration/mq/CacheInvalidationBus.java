@@ -0,0 +1,96 @@
+package com.tw.flyhigh.integration.mq;
+
+import com.google.common.collect.Iterables;
+import com.tw.flyhigh.common.enums.TopicEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 多实例间的本地缓存失效广播：写入方把失效键攒到下一个刷新周期合并发送到订单 topic exchange，
+ * 各实例通过 RabbitMqConfig 中的匿名队列收到后清除本地缓存，忽略自己发出的消息。
+ * 失效键格式为 "类型:id"，例如 user:12、flight:MU2151。
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+    public static final String ROUTING_KEY = "flight.order.invalidation";
+    public static final String MESSAGE_TYPE = "cache-invalidation";
+    private static final int MAX_KEYS_PER_MESSAGE = 500;
+
+    private final AmqpTemplate amqpTemplate;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final Map<String, Consumer<String>> evictors = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBus(AmqpTemplate amqpTemplate, @Value("${order.cache-invalidation.enabled:false}") boolean enabled) {
+        this.amqpTemplate = amqpTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 注册某类失效键的本地清除动作，收到其他实例的失效消息时调用
+     */
+    public void subscribe(String type, Consumer<String> evictor) {
+        evictors.put(type, evictor);
+    }
+
+    public void publish(String type, Object id) {
+        if (enabled) {
+            pendingKeys.add(type + ":" + id);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.cache-invalidation.flush-interval-ms:50}")
+    public void flush() {
+        if (pendingKeys.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(pendingKeys);
+        pendingKeys.removeAll(keys);
+        for (List<String> chunk : Iterables.partition(keys, MAX_KEYS_PER_MESSAGE)) {
+            Message message = MessageBuilder.withBody(String.join("\n", chunk).getBytes(StandardCharsets.UTF_8))
+                                            .setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN)
+                                            .setType(MESSAGE_TYPE)
+                                            .setAppId(nodeId)
+                                            .build();
+            try {
+                amqpTemplate.send(TopicEnum.TOPIC_ORDER.getExchange(), ROUTING_KEY, message);
+            } catch (RuntimeException e) {
+                // 其他实例依赖缓存 ttl 兜底
+                log.warn("broadcast {} cache invalidations failed: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    @RabbitListener(queues = "#{topicQueueOrder.name}", autoStartup = "${order.cache-invalidation.enabled:false}")
+    public void onMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (!MESSAGE_TYPE.equals(properties.getType()) || nodeId.equals(properties.getAppId())) {
+            return;
+        }
+        for (String key : new String(message.getBody(), StandardCharsets.UTF_8).split("\n")) {
+            int separator = key.indexOf(':');
+            Consumer<String> evictor = separator < 0 ? null : evictors.get(key.substring(0, separator));
+            if (evictor != null) {
+                evictor.accept(key.substring(separator + 1));
+            }
+        }
+    }
+}
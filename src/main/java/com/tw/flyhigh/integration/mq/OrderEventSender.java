@@ -1,34 +1,198 @@
 package com.tw.flyhigh.integration.mq;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.tw.flyhigh.common.enums.TopicEnum;
+import com.tw.flyhigh.config.OrderPublisherProperties;
+import com.tw.flyhigh.dto.EncodedMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.AmqpException;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.Message;
-import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
- * 取消订单消息的生产者
+ * 订单消息的生产者。使用 correlated publisher confirms 异步确认，已发送未确认的消息数受发送窗口限制；
+ * 被 nack、无法路由被退回或超过 confirmTimeout 未收到确认的消息按配置重试，多次失败后以异常结束并释放窗口。
+ * 需要开启 spring.rabbitmq.publisher-confirm-type=correlated、publisher-returns 和 template.mandatory。
  * Created by macro on 2018/9/14.
  */
 @Component
 public class OrderEventSender {
     private static Logger LOGGER = LoggerFactory.getLogger(OrderEventSender.class);
-    private final AmqpTemplate amqpTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final OrderPublisherProperties properties;
+    private final Semaphore window;
+    private final ScheduledExecutorService retryScheduler;
+    private final Timer confirmLatency;
+    private final Counter retries;
+    private final Counter failures;
+
+    public OrderEventSender(RabbitTemplate rabbitTemplate, OrderPublisherProperties properties, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.properties = properties;
+        this.window = new Semaphore(properties.getMaxInFlight());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("order-publisher-retry-%d").setDaemon(true).build());
+        this.confirmLatency = Timer.builder("order.publisher.confirm.latency")
+                                   .description("time from publishing an order message to the broker confirm")
+                                   .register(meterRegistry);
+        this.retries = Counter.builder("order.publisher.retries")
+                              .description("order messages republished after a nack or return")
+                              .register(meterRegistry);
+        this.failures = Counter.builder("order.publisher.failures")
+                               .description("order messages given up after the last attempt")
+                               .register(meterRegistry);
+        Gauge.builder("order.publisher.in-flight", window, permits -> properties.getMaxInFlight() - permits.availablePermits())
+             .description("order messages published but not yet confirmed")
+             .register(meterRegistry);
+    }
+
+    /**
+     * 异步发送，broker 确认后完成。发送窗口已满时等待，超过 confirmTimeout 抛出 AmqpException
+     */
+    public CompletableFuture<Void> sendMessage(EncodedMessage msg) {
+        acquireWindow();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        result.whenComplete((ignored, e) -> window.release());
+        publish(msg, 1, result);
+        return result;
+    }
 
-    public OrderEventSender(AmqpTemplate amqpTemplate) {
-        this.amqpTemplate = amqpTemplate;
+    /**
+     * 流水线发送一批消息，全部确认后返回，任一消息最终失败时抛出 AmqpException
+     */
+    public void sendMessages(List<EncodedMessage> msgs) {
+        List<CompletableFuture<Void>> results = new ArrayList<>(msgs.size());
+        msgs.forEach(msg -> results.add(sendMessage(msg)));
+        try {
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                             .get(properties.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof AmqpException ? (AmqpException) e.getCause() : new AmqpException(e.getCause());
+        } catch (TimeoutException e) {
+            AmqpException timeout = new AmqpException("timed out waiting for confirms of " + msgs.size() + " order messages");
+            // 放弃仍未确认的消息，不再重试并归还发送窗口
+            results.forEach(result -> result.completeExceptionally(timeout));
+            throw timeout;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("interrupted waiting for order message confirms", e);
+        }
     }
 
-    public void sendMessage(String msg) {
-        amqpTemplate.convertAndSend(TopicEnum.TOPIC_ORDER.getExchange(), TopicEnum.TOPIC_ORDER.getRouteKey(), msg, new MessagePostProcessor() {
-            @Override
-            public Message postProcessMessage(Message message) throws AmqpException {
-                return message;
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdown();
+    }
+
+    private void acquireWindow() {
+        try {
+            if (!window.tryAcquire(properties.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new AmqpException("order publisher has " + properties.getMaxInFlight() + " unconfirmed messages");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("interrupted waiting for order publisher window", e);
+        }
+    }
+
+    private void publish(EncodedMessage msg, int attempt, CompletableFuture<Void> result) {
+        if (result.isDone()) {
+            return;
+        }
+        CorrelationData correlationData = new CorrelationData();
+        AtomicBoolean settled = new AtomicBoolean();
+        ScheduledFuture<?> confirmTimeout;
+        try {
+            // 通道关闭或 correlation 丢失时确认永远不会到达，超时后按一次失败处理
+            confirmTimeout = retryScheduler.schedule(() -> {
+                if (settled.compareAndSet(false, true)) {
+                    retryOrFail(msg, attempt, result, new AmqpException("no confirm within " + properties.getConfirmTimeout()));
+                }
+            }, properties.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new AmqpException("order publisher is shut down", e));
+            return;
+        }
+        long sentAt = System.nanoTime();
+        try {
+            rabbitTemplate.send(TopicEnum.TOPIC_ORDER.getExchange(), TopicEnum.TOPIC_ORDER.getRouteKey(), toMessage(msg), correlationData);
+        } catch (AmqpException e) {
+            if (settled.compareAndSet(false, true)) {
+                confirmTimeout.cancel(false);
+                retryOrFail(msg, attempt, result, e);
+            }
+            return;
+        }
+        LOGGER.debug("send msg: {} bytes of {}, attempt {}", msg.getBody().length, msg.getContentType(), attempt);
+        correlationData.getFuture().addCallback(confirm -> {
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            confirmTimeout.cancel(false);
+            confirmLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+            if (confirm.isAck() && correlationData.getReturnedMessage() == null) {
+                result.complete(null);
+            } else {
+                String reason = confirm.isAck() ? "returned as unroutable" : "nacked: " + confirm.getReason();
+                retryOrFail(msg, attempt, result, new AmqpException(reason));
+            }
+        }, e -> {
+            if (settled.compareAndSet(false, true)) {
+                confirmTimeout.cancel(false);
+                retryOrFail(msg, attempt, result, new AmqpException(e));
             }
         });
-        LOGGER.info("send msg:{}", msg);
+    }
+
+    private void retryOrFail(EncodedMessage msg, int attempt, CompletableFuture<Void> result, AmqpException cause) {
+        if (result.isDone()) {
+            return;
+        }
+        if (attempt >= properties.getMaxAttempts()) {
+            failures.increment();
+            LOGGER.warn("order message not confirmed after {} attempts: {}", attempt, cause.getMessage());
+            result.completeExceptionally(cause);
+            return;
+        }
+        retries.increment();
+        try {
+            // 不在确认回调所在的连接线程上重新发送
+            retryScheduler.schedule(() -> publish(msg, attempt + 1, result), properties.getRetryBackoff().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(cause);
+        }
+    }
+
+    private Message toMessage(EncodedMessage msg) {
+        MessageProperties messageProperties = new MessageProperties();
+        messageProperties.setContentType(msg.getContentType());
+        if (OrderMessageCodec.CONTENT_TYPE_JSON.equals(msg.getContentType())) {
+            messageProperties.setContentEncoding(StandardCharsets.UTF_8.name());
+        }
+        messageProperties.setContentLength(msg.getBody().length);
+        return new Message(msg.getBody(), messageProperties);
     }
 }
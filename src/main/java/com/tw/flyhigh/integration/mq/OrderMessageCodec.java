@@ -0,0 +1,245 @@
+package com.tw.flyhigh.integration.mq;
+
+import com.alibaba.fastjson.JSON;
+import com.tw.flyhigh.dto.EncodedMessage;
+import com.tw.flyhigh.dto.OrderMessage;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 订单消息编解码。JSON 兼容旧的消费方；binary 是带版本号的紧凑格式：
+ * 不写字段名，整数用 zigzag varint，时间用 epoch 秒 + 纳秒。
+ * 编码格式写在 AMQP 的 content-type 中，解码时按 content-type 选择，缺省按 JSON 处理。
+ */
+@Component
+public class OrderMessageCodec {
+    public static final String CONTENT_TYPE_JSON = MessageProperties.CONTENT_TYPE_JSON;
+    public static final String CONTENT_TYPE_BINARY = "application/x-flyhigh-order-message";
+    static final byte VERSION = 1;
+
+    private final Format format;
+
+    public OrderMessageCodec(@Value("${order.outbox.payload-format:json}") String format) {
+        this.format = Format.valueOf(format.toUpperCase());
+    }
+
+    public EncodedMessage encode(OrderMessage orderMessage) {
+        if (format == Format.BINARY) {
+            return new EncodedMessage(CONTENT_TYPE_BINARY, encodeBinary(orderMessage));
+        }
+        return new EncodedMessage(CONTENT_TYPE_JSON, JSON.toJSONBytes(orderMessage));
+    }
+
+    public static OrderMessage decode(EncodedMessage encodedMessage) {
+        String contentType = encodedMessage.getContentType();
+        if (contentType != null && contentType.startsWith(CONTENT_TYPE_BINARY)) {
+            return decodeBinary(encodedMessage.getBody());
+        }
+        if (contentType == null || contentType.startsWith(CONTENT_TYPE_JSON)) {
+            return JSON.parseObject(encodedMessage.getBody(), OrderMessage.class);
+        }
+        throw new MessageConversionException("unsupported order message content type: " + contentType);
+    }
+
+    public static byte[] encodeBinary(OrderMessage orderMessage) {
+        Writer writer = new Writer();
+        writer.writeByte(VERSION);
+        writer.writeLong(orderMessage.getId());
+        writer.writeLong(orderMessage.getUserId());
+        writer.writeString(orderMessage.getFlight());
+        writer.writeString(orderMessage.getClassType());
+        writer.writeString(orderMessage.getContactMobile());
+        writer.writeString(orderMessage.getContactName());
+        writer.writeString(orderMessage.getStatus());
+        writer.writeDateTime(orderMessage.getLastUpdated());
+        writer.writeDateTime(orderMessage.getCreatedAt());
+        List<OrderMessage.Passenger> passengers = orderMessage.getPassengerList();
+        writer.writeVarLong(passengers == null ? 0 : passengers.size() + 1);
+        if (passengers != null) {
+            for (OrderMessage.Passenger passenger : passengers) {
+                writer.writeString(passenger.getName());
+                writer.writeString(passenger.getAgeType());
+                writer.writeString(passenger.getIdentificationNumber());
+                writer.writeString(passenger.getMobile());
+                writer.writeInteger(passenger.getPrice());
+                writer.writeInteger(passenger.getBaggageWeight());
+                writer.writeString(passenger.getInsuranceId());
+                writer.writeString(passenger.getInsuranceName());
+                writer.writeInteger(passenger.getInsurancePrice());
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    public static OrderMessage decodeBinary(byte[] body) {
+        Reader reader = new Reader(body);
+        try {
+            byte version = reader.readByte();
+            if (version != VERSION) {
+                throw new MessageConversionException("unsupported order message version: " + version);
+            }
+            OrderMessage orderMessage = new OrderMessage();
+            orderMessage.setId(reader.readLong());
+            orderMessage.setUserId(reader.readLong());
+            orderMessage.setFlight(reader.readString());
+            orderMessage.setClassType(reader.readString());
+            orderMessage.setContactMobile(reader.readString());
+            orderMessage.setContactName(reader.readString());
+            orderMessage.setStatus(reader.readString());
+            orderMessage.setLastUpdated(reader.readDateTime());
+            orderMessage.setCreatedAt(reader.readDateTime());
+            int passengerCount = (int) reader.readVarLong() - 1;
+            if (passengerCount >= 0) {
+                List<OrderMessage.Passenger> passengers = new ArrayList<>(passengerCount);
+                for (int i = 0; i < passengerCount; i++) {
+                    passengers.add(new OrderMessage.Passenger(reader.readString(), reader.readString(), reader.readString(), reader.readString(),
+                                                              reader.readInteger(), reader.readInteger(), reader.readString(), reader.readString(),
+                                                              reader.readInteger()));
+                }
+                orderMessage.setPassengerList(passengers);
+            }
+            return orderMessage;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new MessageConversionException("truncated order message", e);
+        }
+    }
+
+    enum Format {
+        JSON, BINARY
+    }
+
+    /**
+     * 可空字段先写一个存在标记；字符串用 长度+1 表示，0 表示 null
+     */
+    private static final class Writer {
+        private byte[] buffer = new byte[256];
+        private int position;
+
+        void writeByte(int value) {
+            if (position == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(Long value) {
+            writeByte(value == null ? 0 : 1);
+            if (value != null) {
+                writeZigZag(value);
+            }
+        }
+
+        void writeInteger(Integer value) {
+            writeByte(value == null ? 0 : 1);
+            if (value != null) {
+                writeZigZag(value);
+            }
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            if (position + bytes.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes.length));
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeDateTime(LocalDateTime value) {
+            writeByte(value == null ? 0 : 1);
+            if (value != null) {
+                writeZigZag(value.toEpochSecond(ZoneOffset.UTC));
+                writeVarLong(value.getNano());
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new MessageConversionException("malformed varint in order message");
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        Long readLong() {
+            return readByte() == 0 ? null : readZigZag();
+        }
+
+        Integer readInteger() {
+            return readByte() == 0 ? null : (int) readZigZag();
+        }
+
+        String readString() {
+            int length = (int) readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (position + length > buffer.length) {
+                throw new ArrayIndexOutOfBoundsException(position + length);
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        LocalDateTime readDateTime() {
+            if (readByte() == 0) {
+                return null;
+            }
+            long epochSecond = readZigZag();
+            return LocalDateTime.ofEpochSecond(epochSecond, (int) readVarLong(), ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.tw.flyhigh.integration.mq;
+
+import com.tw.flyhigh.dto.EncodedMessage;
+import com.tw.flyhigh.entity.OrderOutboxEntity;
+import com.tw.flyhigh.repository.OrderOutboxRepository;
+import com.tw.flyhigh.repository.RelayLeaseRepository;
+import com.tw.flyhigh.service.MessageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 按批次把 order_outbox 中的订单消息投递到 MQ，投递成功后删除。
+ * 每批投递前先获取（续约）relay_lease 中的租约，多实例部署时同一时刻只有一个实例投递，消息按 id 顺序发出；
+ * 投递失败或持有者在租约到期前没能删除已发送的消息时，消息会被再次投递，消费方需要按订单 id 和状态做幂等。
+ */
+@Slf4j
+@Component
+public class OrderOutboxRelay {
+    static final String LEASE_NAME = "order-outbox";
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final RelayLeaseRepository relayLeaseRepository;
+    private final MessageService messageService;
+    private final int batchSize;
+    private final Duration lease;
+    private final String owner = UUID.randomUUID().toString();
+
+    public OrderOutboxRelay(OrderOutboxRepository orderOutboxRepository, RelayLeaseRepository relayLeaseRepository, MessageService messageService,
+                            @Value("${order.outbox.relay-batch-size:100}") int batchSize,
+                            @Value("${order.outbox.relay-lease-ms:30000}") long leaseMillis) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.relayLeaseRepository = relayLeaseRepository;
+        this.messageService = messageService;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofMillis(leaseMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval-ms:200}")
+    public void relay() {
+        List<OrderOutboxEntity> batch;
+        do {
+            if (!relayLeaseRepository.tryAcquire(LEASE_NAME, owner, lease)) {
+                return;
+            }
+            batch = orderOutboxRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                messageService.sendMsgs(batch.stream()
+                                             .map(outbox -> new EncodedMessage(outbox.getContentType(), outbox.getPayload()))
+                                             .collect(Collectors.toList()));
+            } catch (RuntimeException e) {
+                log.warn("relay {} order events failed, will retry: {}", batch.size(), e.getMessage());
+                return;
+            }
+            orderOutboxRepository.deleteInBatch(batch);
+        } while (batch.size() == batchSize);
+    }
+}
@@ -0,0 +1,13 @@
+package com.tw.flyhigh.repository;
+
+import com.tw.flyhigh.entity.OrderOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEntity, Long> {
+    List<OrderOutboxEntity> findAllByOrderByIdAsc(Pageable pageable);
+}
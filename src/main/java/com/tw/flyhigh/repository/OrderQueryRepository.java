@@ -0,0 +1,117 @@
+package com.tw.flyhigh.repository;
+
+import com.tw.flyhigh.common.util.OrderCursor;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 订单只读查询：直接把列投影到 Order DTO，不创建托管实体，也不触发 EAGER/SUBSELECT 抓取。
+ * 一页订单固定三条 SQL：订单、乘客、订单事件。
+ */
+@Repository
+public class OrderQueryRepository {
+    private static final String ORDER_COLUMNS = "select o.id as id, o.userId as userId, o.flight as flight, o.classType as classType,"
+        + " o.contactMobile as contactMobile, o.contactName as contactName, o.status as status, o.createdAt as createdAt"
+        + " from TicketOrderEntity o where o.userId = :userId";
+    private static final String AFTER_CURSOR = " and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))";
+    private static final String ORDER_BY = " order by o.createdAt desc, o.id desc";
+
+    private final EntityManager entityManager;
+
+    public OrderQueryRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * 按 (createdAt, id) 倒序查询 after 之后的一页订单，多取一条用于判断是否还有下一页
+     */
+    @Transactional(readOnly = true)
+    public OrderPage findPage(Long userId, OrderCursor after, int limit) {
+        TypedQuery<Tuple> query = entityManager.createQuery(ORDER_COLUMNS + (after == null ? "" : AFTER_CURSOR) + ORDER_BY, Tuple.class)
+                                               .setParameter("userId", userId)
+                                               .setMaxResults(limit + 1);
+        if (after != null) {
+            query.setParameter("createdAt", after.getCreatedAt()).setParameter("id", after.getId());
+        }
+        List<Order> orders = query.getResultList().stream().map(this::toOrder).collect(Collectors.toList());
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            Order last = orders.get(limit - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        if (!orders.isEmpty()) {
+            fillDetails(orders);
+        }
+        return OrderPage.builder().orders(orders).nextCursor(nextCursor).build();
+    }
+
+    private void fillDetails(List<Order> orders) {
+        Map<Long, Order> ordersById = orders.stream().collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        entityManager.createQuery("select p.order.id as orderId, p.id as id, p.name as name, p.ageType as ageType,"
+                                      + " p.identificationNumber as identificationNumber, p.mobile as mobile, p.price as price,"
+                                      + " p.baggageWeight as baggageWeight, p.insuranceId as insuranceId, p.insuranceName as insuranceName,"
+                                      + " p.insurancePrice as insurancePrice"
+                                      + " from PassengerEntity p where p.order.id in :orderIds order by p.id", Tuple.class)
+                     .setParameter("orderIds", ordersById.keySet())
+                     .getResultList()
+                     .forEach(tuple -> ordersById.get(tuple.get("orderId", Long.class)).getPassengerList().add(toPassenger(tuple)));
+
+        entityManager.createQuery("select e.order.id as orderId, e.id as id, e.status as status, e.createdAt as createdAt"
+                                      + " from TicketOrderEventEntity e where e.order.id in :orderIds order by e.createdAt desc", Tuple.class)
+                     .setParameter("orderIds", ordersById.keySet())
+                     .getResultList()
+                     .forEach(tuple -> ordersById.get(tuple.get("orderId", Long.class)).getOrderEventList().add(toOrderEvent(tuple)));
+    }
+
+    private Order toOrder(Tuple tuple) {
+        return Order.builder()
+                    .id(tuple.get("id", Long.class))
+                    .userId(tuple.get("userId", Long.class))
+                    .flight(tuple.get("flight", String.class))
+                    .classType(tuple.get("classType", String.class))
+                    .contactMobile(tuple.get("contactMobile", String.class))
+                    .contactName(tuple.get("contactName", String.class))
+                    .status(tuple.get("status", String.class))
+                    .createdAt(tuple.get("createdAt", LocalDateTime.class))
+                    .passengerList(new ArrayList<>())
+                    .orderEventList(new ArrayList<>())
+                    .build();
+    }
+
+    private Order.Passenger toPassenger(Tuple tuple) {
+        return Order.Passenger.builder()
+                              .id(tuple.get("id", Long.class))
+                              .name(tuple.get("name", String.class))
+                              .ageType(tuple.get("ageType", String.class))
+                              .identificationNumber(tuple.get("identificationNumber", String.class))
+                              .mobile(tuple.get("mobile", String.class))
+                              .price(tuple.get("price", Integer.class))
+                              .baggageWeight(tuple.get("baggageWeight", Integer.class))
+                              .insuranceId(tuple.get("insuranceId", String.class))
+                              .insuranceName(tuple.get("insuranceName", String.class))
+                              .insurancePrice(tuple.get("insurancePrice", Integer.class))
+                              .build();
+    }
+
+    private Order.OrderEvent toOrderEvent(Tuple tuple) {
+        return Order.OrderEvent.builder()
+                               .id(tuple.get("id", Long.class))
+                               .status(tuple.get("status", String.class))
+                               .createdAt(tuple.get("createdAt", LocalDateTime.class))
+                               .build();
+    }
+}
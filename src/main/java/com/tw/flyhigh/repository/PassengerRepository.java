@@ -3,10 +3,12 @@ package com.tw.flyhigh.repository;
 import com.tw.flyhigh.entity.PassengerEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
+@Transactional(readOnly = true)
 public interface PassengerRepository extends JpaRepository<PassengerEntity, Long> {
     List<PassengerEntity> findByOrderId(Long orderId);
 }
@@ -0,0 +1,12 @@
+package com.tw.flyhigh.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 恢复到期时间轮时只需要订单 id 和下单时间
+ */
+public interface PendingOrder {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+}
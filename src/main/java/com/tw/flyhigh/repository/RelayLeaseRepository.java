@@ -0,0 +1,36 @@
+package com.tw.flyhigh.repository;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * relay_lease 表中的租约：同一时刻只有一个实例持有某个名字的租约，持有者在到期前续约，
+ * 持有者宕机或失联后租约到期，由其他实例接管
+ */
+@Repository
+public class RelayLeaseRepository {
+    private final EntityManager entityManager;
+
+    public RelayLeaseRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * 租约空闲、已过期或本来就由 owner 持有时获取（续约）到 now + lease，返回是否持有租约
+     */
+    @Transactional
+    public boolean tryAcquire(String name, String owner, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return entityManager.createNativeQuery("update relay_lease set owner = :owner, lease_until = :leaseUntil"
+                                                   + " where name = :name and (owner = :owner or lease_until < :now)")
+                            .setParameter("owner", owner)
+                            .setParameter("leaseUntil", now.plus(lease))
+                            .setParameter("name", name)
+                            .setParameter("now", now)
+                            .executeUpdate() == 1;
+    }
+}
@@ -1,12 +1,38 @@
 package com.tw.flyhigh.repository;
 
 import com.tw.flyhigh.entity.TicketOrderEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface TicketOrderRepository extends JpaRepository<TicketOrderEntity, Long> {
     List<TicketOrderEntity> findByUserId(Long userId);
+
+    /**
+     * 按 id 顺序分页读取某个状态的订单，走 (status, id) 索引
+     */
+    List<PendingOrder> findByStatusAndIdGreaterThanOrderByIdAsc(String status, Long id, Pageable pageable);
+
+    /**
+     * 幂等检查必须读主库，从库延迟会导致重复下单
+     */
+    @Transactional
+    Optional<TicketOrderEntity> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    /**
+     * 仅当订单仍处于 from 状态时更新为 to，返回 0 表示状态已被其他请求修改
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update TicketOrderEntity o set o.status = :to where o.id = :id and o.status = :from")
+    int compareAndSetStatus(@Param("id") Long id, @Param("from") String from, @Param("to") String to);
 }
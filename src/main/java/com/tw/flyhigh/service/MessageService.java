@@ -1,6 +1,14 @@
 package com.tw.flyhigh.service;
 
+import com.tw.flyhigh.dto.EncodedMessage;
+
+import java.util.List;
+
 public interface MessageService {
 
-    void sendMsg(String msgJson);
+    void sendMsg(EncodedMessage message);
+
+    default void sendMsgs(List<EncodedMessage> messages) {
+        messages.forEach(this::sendMsg);
+    }
 }
@@ -0,0 +1,13 @@
+package com.tw.flyhigh.service;
+
+import com.tw.flyhigh.dto.EncodedMessage;
+
+import java.util.List;
+
+/**
+ * 进程内消息总线的消费者，每个消费者在自己的线程上按发送顺序收到全部消息
+ */
+public interface OrderMessageConsumer {
+
+    void onMessages(List<EncodedMessage> messages);
+}
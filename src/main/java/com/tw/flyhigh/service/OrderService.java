@@ -1,16 +1,36 @@
 package com.tw.flyhigh.service;
 
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
+import com.tw.flyhigh.dto.BatchOrderResult;
 import com.tw.flyhigh.dto.CreateOrderDto;
 import com.tw.flyhigh.dto.FlightDetail;
 import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface OrderService {
 
     Order createOrder(CreateOrderDto createOrderDto);
 
-    List<Order> getOrders(Long userId);
+    Order createOrder(CreateOrderDto createOrderDto, String idempotencyKey);
+
+    /**
+     * 非阻塞下单，等待座位预留时不占用调用线程
+     */
+    CompletableFuture<Order> createOrderAsync(CreateOrderDto createOrderDto, String idempotencyKey);
+
+    List<BatchOrderResult> createOrders(List<CreateOrderDto> createOrderDtos);
+
+    /**
+     * 把订单流转到目标状态并记录状态事件，同一订单的调用需要由调用方保证顺序
+     */
+    Order changeStatus(Long orderId, OrderStatusEnum target);
+
+    Order cancelOrder(Long orderId);
+
+    OrderPage getOrders(Long userId, String cursor, int limit);
 
     FlightDetail getFlightDetail(String flight);
 }
@@ -1,10 +1,15 @@
 package com.tw.flyhigh.service.impl;
 
+import com.tw.flyhigh.dto.EncodedMessage;
 import com.tw.flyhigh.integration.mq.OrderEventSender;
 import com.tw.flyhigh.service.MessageService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
+@ConditionalOnProperty(prefix = "order.message-bus", name = "type", havingValue = "amqp", matchIfMissing = true)
 public class AmqpMessageServiceImpl implements MessageService {
     private final OrderEventSender orderEventSender;
 
@@ -13,7 +18,12 @@ public class AmqpMessageServiceImpl implements MessageService {
     }
 
     @Override
-    public void sendMsg(String eventJson) {
-        orderEventSender.sendMessage(eventJson);
+    public void sendMsg(EncodedMessage message) {
+        orderEventSender.sendMessage(message);
+    }
+
+    @Override
+    public void sendMsgs(List<EncodedMessage> messages) {
+        orderEventSender.sendMessages(messages);
     }
 }
@@ -0,0 +1,142 @@
+package com.tw.flyhigh.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.common.exception.BusinessException;
+import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.common.exception.NoMoreSeatException;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.config.OrderAcceptanceProperties;
+import com.tw.flyhigh.dto.CreateOrderDto;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderTicket;
+import com.tw.flyhigh.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步下单受理：校验通过后立即返回受理凭证，由有界的内部线程池完成座位预留和订单保存，
+ * 客户端通过凭证轮询或等待最终结果。
+ * 凭证和待处理的请求只保存在当前实例的内存中：多实例部署时凭证查询必须路由回受理的实例（按 Location 粘滞路由），
+ * 否则只能单实例开启；实例崩溃时已返回 202 的请求会丢失，客户端应带 Idempotency-Key 下单，查不到凭证时用同一个键重新提交。
+ * 处理中的凭证不受 maxTickets 淘汰，处理完成后才进入按 ticketTtl 过期的结果缓存。
+ */
+@Slf4j
+@Component
+public class OrderAcceptancePipeline {
+    private final OrderService orderService;
+    private final OrderAcceptanceProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timeoutScheduler;
+    /**
+     * 处理中的凭证，数量受线程池和队列容量限制
+     */
+    private final Map<String, CompletableFuture<OrderTicket>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, CompletableFuture<OrderTicket>> tickets;
+
+    public OrderAcceptancePipeline(OrderService orderService, OrderAcceptanceProperties properties) {
+        this.orderService = orderService;
+        this.properties = properties;
+        this.executor = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(), 60, TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                                               new ThreadFactoryBuilder().setNameFormat("order-acceptance-%d").build(),
+                                               new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("order-acceptance-timeout-%d").setDaemon(true).build());
+        this.tickets = CacheBuilder.newBuilder()
+                                   .maximumSize(properties.getMaxTickets())
+                                   .expireAfterWrite(properties.getTicketTtl().toMillis(), TimeUnit.MILLISECONDS)
+                                   .build();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public OrderTicket submit(CreateOrderDto createOrderDto, String idempotencyKey) {
+        String token = UUID.randomUUID().toString();
+        CompletableFuture<OrderTicket> result = new CompletableFuture<>();
+        inFlight.put(token, result);
+        result.whenComplete((ticket, e) -> {
+            tickets.put(token, result);
+            inFlight.remove(token);
+        });
+        try {
+            executor.execute(() -> result.complete(process(token, createOrderDto, idempotencyKey)));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(token);
+            throw new OrderOverloadException("order acceptance queue is full");
+        }
+        return pending(token);
+    }
+
+    public Optional<OrderTicket> find(String token) {
+        CompletableFuture<OrderTicket> result = lookup(token);
+        if (result == null) {
+            return Optional.empty();
+        }
+        return Optional.of(result.getNow(pending(token)));
+    }
+
+    /**
+     * 等待处理结果，超时后返回当前状态
+     */
+    public Optional<CompletableFuture<OrderTicket>> await(String token, long waitMillis) {
+        CompletableFuture<OrderTicket> result = lookup(token);
+        if (result == null) {
+            return Optional.empty();
+        }
+        CompletableFuture<OrderTicket> timeout = new CompletableFuture<>();
+        timeoutScheduler.schedule(() -> timeout.complete(pending(token)), waitMillis, TimeUnit.MILLISECONDS);
+        return Optional.of(result.applyToEither(timeout, ticket -> ticket));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        timeoutScheduler.shutdown();
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<OrderTicket> lookup(String token) {
+        CompletableFuture<OrderTicket> result = inFlight.get(token);
+        return result != null ? result : tickets.getIfPresent(token);
+    }
+
+    private OrderTicket process(String token, CreateOrderDto createOrderDto, String idempotencyKey) {
+        try {
+            Order order = orderService.createOrder(createOrderDto, idempotencyKey);
+            return OrderTicket.builder().token(token).status(OrderTicket.CREATED).order(order).build();
+        } catch (NoMoreSeatException e) {
+            return failed(token, ErrorCode.NO_MORE_SEAT.getValue(), "机票已售罄");
+        } catch (BusinessException e) {
+            ErrorCode errorCode = e.getErrorCode() == null ? ErrorCode.CREATE_ORDER_EXCEPTION : e.getErrorCode();
+            return failed(token, errorCode.getValue(), "服务异常，请稍后再试");
+        } catch (RuntimeException e) {
+            log.error("accept order {} failed", token, e);
+            return failed(token, ErrorCode.CREATE_ORDER_EXCEPTION.getValue(), "服务异常，请稍后再试");
+        }
+    }
+
+    private OrderTicket pending(String token) {
+        return OrderTicket.builder().token(token).status(OrderTicket.PENDING).build();
+    }
+
+    private OrderTicket failed(String token, String errorCode, String message) {
+        return OrderTicket.builder().token(token).status(OrderTicket.FAILED).errorCode(errorCode).message(message).build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.tw.flyhigh.service.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.config.OrderDbExecutorProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非阻塞下单中查询和保存订单的线程池：JDBC 调用会阻塞，不能占用 servlet 线程或座位服务异步客户端的回调线程。
+ * 队列有界，满了抛出 OrderOverloadException
+ */
+@Component
+public class OrderDbExecutor implements Executor {
+    private final ThreadPoolExecutor executor;
+
+    public OrderDbExecutor(OrderDbExecutorProperties properties) {
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 60, TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                                               new ThreadFactoryBuilder().setNameFormat("order-db-%d").setDaemon(true).build(),
+                                               new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            executor.execute(command);
+        } catch (RejectedExecutionException e) {
+            throw new OrderOverloadException("order db executor queue is full");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,182 @@
+package com.tw.flyhigh.service.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
+import com.tw.flyhigh.common.exception.OrderNotFoundException;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.common.exception.OrderStatusTransitionException;
+import com.tw.flyhigh.config.OrderExpiryProperties;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.ReleaseSeatRequest;
+import com.tw.flyhigh.integration.client.PriceSeatManagerClient;
+import com.tw.flyhigh.repository.PendingOrder;
+import com.tw.flyhigh.repository.TicketOrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 取消超时未支付的订单：启动时按 (status, id) 索引把 CREATED 订单的到期时间装入时间轮，
+ * 之后新订单由下单流程登记；每个 tick 取出到期订单，经状态引擎分批取消，
+ * 同一批中相同航班舱位的座位合并为一次 releaseSeat 调用。已支付的订单在状态流转时被拒绝，直接跳过。
+ * tick 在独立的线程上执行，等待状态引擎和同步归还座位时不占用 Spring 共享的调度线程。
+ */
+@Slf4j
+@Component
+public class OrderExpiryScheduler {
+    private final OrderExpiryWheel orderExpiryWheel;
+    private final OrderStatusEngine orderStatusEngine;
+    private final PriceSeatManagerClient priceSeatManagerClient;
+    private final TicketOrderRepository orderRepository;
+    private final OrderExpiryProperties properties;
+    private final long tickMillis;
+    private final ScheduledExecutorService ticker;
+    private final Counter canceled;
+    private final Counter releaseFailures;
+
+    public OrderExpiryScheduler(OrderExpiryWheel orderExpiryWheel, OrderStatusEngine orderStatusEngine, PriceSeatManagerClient priceSeatManagerClient,
+                                TicketOrderRepository orderRepository, OrderExpiryProperties properties, MeterRegistry meterRegistry,
+                                @Value("${order.expiry.tick-ms:1000}") long tickMillis) {
+        this.orderExpiryWheel = orderExpiryWheel;
+        this.orderStatusEngine = orderStatusEngine;
+        this.priceSeatManagerClient = priceSeatManagerClient;
+        this.orderRepository = orderRepository;
+        this.properties = properties;
+        this.tickMillis = tickMillis;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("order-expiry-%d").setDaemon(true).build());
+        this.canceled = Counter.builder("order.expiry.canceled")
+                               .description("unpaid orders canceled after their payment deadline")
+                               .register(meterRegistry);
+        this.releaseFailures = Counter.builder("order.expiry.release.failures")
+                                      .description("seat release calls failed for expired orders")
+                                      .register(meterRegistry);
+        Gauge.builder("order.expiry.pending", orderExpiryWheel, OrderExpiryWheel::size)
+             .description("unpaid orders waiting in the expiry wheel")
+             .register(meterRegistry);
+    }
+
+    /**
+     * 先从数据库恢复待支付订单，再开始按 tick 取消到期订单
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!orderExpiryWheel.isEnabled()) {
+            return;
+        }
+        rebuild();
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdown();
+    }
+
+    public void rebuild() {
+        if (!orderExpiryWheel.isEnabled()) {
+            return;
+        }
+        long lastId = 0;
+        int restored = 0;
+        List<PendingOrder> page;
+        do {
+            page = orderRepository.findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatusEnum.CREATED.name(), lastId,
+                                                                             PageRequest.of(0, properties.getRebuildPageSize()));
+            for (PendingOrder pendingOrder : page) {
+                orderExpiryWheel.schedule(pendingOrder.getId(), pendingOrder.getCreatedAt());
+                lastId = pendingOrder.getId();
+            }
+            restored += page.size();
+        } while (page.size() == properties.getRebuildPageSize());
+        log.info("restored {} unpaid orders into expiry wheel", restored);
+    }
+
+    /**
+     * 周期任务抛出异常后不会再被调度，单次 tick 失败只记录日志，到期订单由 retryLater 或下一次 tick 处理
+     */
+    void tick() {
+        try {
+            expire();
+        } catch (RuntimeException e) {
+            log.error("expire unpaid orders failed", e);
+        }
+    }
+
+    public void expire() {
+        if (!orderExpiryWheel.isEnabled()) {
+            return;
+        }
+        List<Long> expired = orderExpiryWheel.advance(System.currentTimeMillis());
+        Lists.partition(expired, properties.getBatchSize()).forEach(this::cancelBatch);
+    }
+
+    void cancelBatch(List<Long> orderIds) {
+        Map<Long, CompletableFuture<Order>> submitted = new LinkedHashMap<>();
+        for (Long orderId : orderIds) {
+            try {
+                submitted.put(orderId, orderStatusEngine.submit(orderId, OrderStatusEnum.CANCELED));
+            } catch (OrderOverloadException e) {
+                retryLater(orderId);
+            }
+        }
+        List<Order> canceledOrders = new ArrayList<>(submitted.size());
+        submitted.forEach((orderId, future) -> {
+            try {
+                canceledOrders.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof OrderStatusTransitionException || e.getCause() instanceof OrderNotFoundException) {
+                    // 订单已支付或已取消
+                    return;
+                }
+                log.warn("cancel expired order {} failed: {}", orderId, e.getCause().getMessage());
+                retryLater(orderId);
+            }
+        });
+        canceled.increment(canceledOrders.size());
+        releaseSeats(canceledOrders);
+    }
+
+    private void releaseSeats(List<Order> canceledOrders) {
+        Map<String, ReleaseSeatRequest> releases = new LinkedHashMap<>();
+        for (Order order : canceledOrders) {
+            int seats = order.getPassengerList() == null ? 0 : order.getPassengerList().size();
+            ReleaseSeatRequest releaseSeatRequest = releases.computeIfAbsent(order.getFlight() + "/" + order.getClassType(),
+                                                                             group -> new ReleaseSeatRequest(order.getFlight(), order.getClassType(), 0));
+            releaseSeatRequest.setNumber(releaseSeatRequest.getNumber() + seats);
+        }
+        releases.values().forEach(releaseSeatRequest -> {
+            try {
+                if (!priceSeatManagerClient.releaseSeat(releaseSeatRequest)) {
+                    releaseFailures.increment();
+                    log.error("release seat {} of expired orders rejected", releaseSeatRequest);
+                }
+            } catch (RuntimeException e) {
+                releaseFailures.increment();
+                log.error("release seat {} of expired orders failed", releaseSeatRequest, e);
+            }
+        });
+    }
+
+    private void retryLater(Long orderId) {
+        orderExpiryWheel.add(orderId, System.currentTimeMillis() + properties.getRetryDelay().toMillis());
+    }
+}
@@ -0,0 +1,147 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.config.OrderExpiryProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 待支付订单的到期时间轮：按到期 tick 散列到固定数量的槽中，每个槽用两个 long 数组保存订单 id 和到期时间，
+ * 每个订单只占 16 字节。推进时只扫描经过的槽，超过一圈的订单留在槽中等下一圈。
+ * 订单支付后不从时间轮中删除，到期时由状态流转表拒绝取消。
+ */
+@Component
+public class OrderExpiryWheel {
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final AtomicInteger size = new AtomicInteger();
+    /**
+     * 推进时持有写锁，登记订单时持有读锁，保证订单不会在推进过程中落到已扫描过的槽里而晚一整圈到期
+     */
+    private final ReadWriteLock tickLock = new ReentrantReadWriteLock();
+    /**
+     * 最早的未处理完的 tick，当前 tick 的槽中可能还有同一 tick 内稍后到期的订单，下次推进时重新扫描
+     */
+    private long currentTick;
+
+    @Autowired
+    public OrderExpiryWheel(OrderExpiryProperties properties, @Value("${order.expiry.tick-ms:1000}") long tickMillis) {
+        this(properties, tickMillis, System.currentTimeMillis());
+    }
+
+    OrderExpiryWheel(OrderExpiryProperties properties, long tickMillis, long startMillis) {
+        int wheelSize = Integer.highestOneBit(Math.max(1, properties.getWheelSize() - 1)) << 1;
+        this.enabled = properties.isEnabled();
+        this.ttlMillis = properties.getTtl().toMillis();
+        this.tickMillis = tickMillis;
+        this.buckets = new Bucket[wheelSize];
+        this.mask = wheelSize - 1;
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * 登记订单的支付期限，从下单时间开始计算
+     */
+    public void schedule(Long orderId, LocalDateTime createdAt) {
+        if (!enabled || orderId == null) {
+            return;
+        }
+        long createdMillis = createdAt == null ? System.currentTimeMillis() : createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        add(orderId, createdMillis + ttlMillis);
+    }
+
+    public void add(long orderId, long deadlineMillis) {
+        // 已过期或落在已处理过的 tick 上的订单放到当前槽，下次推进时取出
+        tickLock.readLock().lock();
+        try {
+            long tick = Math.max(deadlineMillis / tickMillis, currentTick);
+            buckets[(int) (tick & mask)].add(orderId, deadlineMillis);
+            size.incrementAndGet();
+        } finally {
+            tickLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 推进到 nowMillis，返回到期的订单 id
+     */
+    public List<Long> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        tickLock.writeLock().lock();
+        try {
+            long from = currentTick;
+            if (nowTick < from) {
+                return new ArrayList<>();
+            }
+            // 积压超过一圈时每个槽只需扫描一次
+            long to = Math.min(nowTick, from + buckets.length - 1);
+            List<Long> expired = new ArrayList<>();
+            for (long tick = from; tick <= to; tick++) {
+                buckets[(int) (tick & mask)].drainExpired(nowMillis, expired);
+            }
+            currentTick = nowTick;
+            size.addAndGet(-expired.size());
+            return expired;
+        } finally {
+            tickLock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static final class Bucket {
+        private long[] orderIds = new long[0];
+        private long[] deadlines = new long[0];
+        private int size;
+
+        synchronized void add(long orderId, long deadline) {
+            if (size == orderIds.length) {
+                int capacity = Math.max(8, size * 2);
+                orderIds = Arrays.copyOf(orderIds, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+            }
+            orderIds[size] = orderId;
+            deadlines[size] = deadline;
+            size++;
+        }
+
+        synchronized void drainExpired(long nowMillis, List<Long> expired) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (deadlines[i] <= nowMillis) {
+                    expired.add(orderIds[i]);
+                } else {
+                    orderIds[kept] = orderIds[i];
+                    deadlines[kept] = deadlines[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (size == 0 && orderIds.length > 64) {
+                orderIds = new long[0];
+                deadlines = new long[0];
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tw.flyhigh.service.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.tw.flyhigh.common.exception.IdempotencyKeyReusedException;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.config.IdempotencyProperties;
+import com.tw.flyhigh.dto.CreateOrderDto;
+import com.tw.flyhigh.dto.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 按 (userId, Idempotency-Key) 记录下单结果。重复请求直接返回首次结果，
+ * 首次请求仍在处理中时并发的重复请求等待其完成；同一个键的请求体摘要不一致时抛出 IdempotencyKeyReusedException。
+ */
+@Component
+public class OrderIdempotencyStore {
+    private final IdempotencyProperties properties;
+    private final Cache<String, Attempt> results;
+
+    public OrderIdempotencyStore(IdempotencyProperties properties) {
+        this.properties = properties;
+        this.results = CacheBuilder.newBuilder()
+                                   .maximumSize(properties.getMaxKeys())
+                                   .expireAfterWrite(properties.getTtl().toMillis(), TimeUnit.MILLISECONDS)
+                                   .build();
+    }
+
+    /**
+     * 下单请求体的 SHA-256 摘要
+     */
+    public static String requestHash(CreateOrderDto createOrderDto) {
+        return Hashing.sha256().hashString(JSON.toJSONString(createOrderDto), StandardCharsets.UTF_8).toString();
+    }
+
+    public Order execute(Long userId, String idempotencyKey, String requestHash, Supplier<Order> createOrder) {
+        String key = userId + ":" + idempotencyKey;
+        Attempt attempt = new Attempt(requestHash);
+        Attempt existing = results.asMap().putIfAbsent(key, attempt);
+        if (existing != null) {
+            if (!existing.requestHash.equals(requestHash)) {
+                throw new IdempotencyKeyReusedException("idempotency key " + idempotencyKey + " was used for a different order request");
+            }
+            return await(existing.result);
+        }
+        try {
+            Order order = createOrder.get();
+            attempt.result.complete(order);
+            return order;
+        } catch (RuntimeException e) {
+            // 失败的结果不缓存，客户端可以用同一个幂等键重试
+            results.asMap().remove(key, attempt);
+            attempt.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static final class Attempt {
+        private final String requestHash;
+        private final CompletableFuture<Order> result = new CompletableFuture<>();
+
+        private Attempt(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    private Order await(CompletableFuture<Order> existing) {
+        try {
+            return existing.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new OrderOverloadException("duplicate order request is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderOverloadException("interrupted while waiting for duplicate order request");
+        }
+    }
+}
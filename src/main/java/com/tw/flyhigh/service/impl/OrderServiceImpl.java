@@ -1,69 +1,366 @@
 package com.tw.flyhigh.service.impl;
 
-import com.alibaba.fastjson.JSON;
+import com.google.common.collect.Lists;
 import com.tw.flyhigh.common.enums.OrderStatusEnum;
 import com.tw.flyhigh.common.exception.BusinessException;
 import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.common.exception.IdempotencyKeyReusedException;
 import com.tw.flyhigh.common.exception.NoMoreSeatException;
+import com.tw.flyhigh.common.exception.OrderNotFoundException;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.common.exception.OrderStatusTransitionException;
+import com.tw.flyhigh.common.datasource.ReadYourWritesTracker;
+import com.tw.flyhigh.common.datasource.ReplicaRoutingContext;
+import com.tw.flyhigh.common.util.OrderCursor;
+import com.tw.flyhigh.dto.BatchOrderResult;
 import com.tw.flyhigh.dto.CreateOrderDto;
+import com.tw.flyhigh.dto.EncodedMessage;
 import com.tw.flyhigh.dto.FlightDetail;
 import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
 import com.tw.flyhigh.dto.OrderMessage;
 import com.tw.flyhigh.dto.ReleaseSeatRequest;
 import com.tw.flyhigh.dto.ReserveSeatRequest;
+import com.tw.flyhigh.entity.OrderOutboxEntity;
 import com.tw.flyhigh.entity.PassengerEntity;
 import com.tw.flyhigh.entity.TicketOrderEntity;
 import com.tw.flyhigh.entity.TicketOrderEventEntity;
+import com.tw.flyhigh.integration.client.AsyncPriceSeatManagerClient;
+import com.tw.flyhigh.integration.client.FlightDetailCache;
 import com.tw.flyhigh.integration.client.PriceSeatManagerClient;
+import com.tw.flyhigh.integration.client.SeatQuotaLedger;
+import com.tw.flyhigh.integration.client.SeatReservationBatcher;
+import com.tw.flyhigh.integration.mq.OrderMessageCodec;
+import com.tw.flyhigh.repository.OrderOutboxRepository;
+import com.tw.flyhigh.repository.OrderQueryRepository;
 import com.tw.flyhigh.repository.TicketOrderEventRepository;
 import com.tw.flyhigh.repository.TicketOrderRepository;
 import com.tw.flyhigh.service.OrderService;
-import org.springframework.beans.BeanUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static com.google.common.collect.Lists.newArrayList;
+
+@Slf4j
 @Service
 public class OrderServiceImpl implements OrderService {
+    /**
+     * 批量下单时每个事务保存的订单数
+     */
+    private static final int BATCH_CHUNK_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final TicketOrderRepository orderRepository;
     private final TicketOrderEventRepository ticketOrderEventRepository;
     private final PriceSeatManagerClient priceSeatManagerClient;
-    private final AmqpMessageServiceImpl amqpMessageServiceImpl;
+    private final AsyncPriceSeatManagerClient asyncPriceSeatManagerClient;
+    private final SeatQuotaLedger seatQuotaLedger;
+    private final SeatReservationBatcher seatReservationBatcher;
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final OrderMessageCodec orderMessageCodec;
+    private final OrderIdempotencyStore orderIdempotencyStore;
+    private final OrderQueryRepository orderQueryRepository;
+    private final FlightDetailCache flightDetailCache;
+    private final UserOrderCache userOrderCache;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final OrderExpiryWheel orderExpiryWheel;
+    private final OrderDbExecutor orderDbExecutor;
+    private final TransactionTemplate transactionTemplate;
 
-    public OrderServiceImpl(TicketOrderRepository orderRepository, TicketOrderEventRepository ticketOrderEventRepository, PriceSeatManagerClient priceSeatManagerClient, AmqpMessageServiceImpl amqpMessageServiceImpl) {
+    public OrderServiceImpl(TicketOrderRepository orderRepository, TicketOrderEventRepository ticketOrderEventRepository, PriceSeatManagerClient priceSeatManagerClient,
+                            AsyncPriceSeatManagerClient asyncPriceSeatManagerClient, SeatQuotaLedger seatQuotaLedger, SeatReservationBatcher seatReservationBatcher, OrderOutboxRepository orderOutboxRepository,
+                            OrderMessageCodec orderMessageCodec, OrderIdempotencyStore orderIdempotencyStore, OrderQueryRepository orderQueryRepository,
+                            FlightDetailCache flightDetailCache, UserOrderCache userOrderCache, ReadYourWritesTracker readYourWritesTracker,
+                            OrderExpiryWheel orderExpiryWheel, OrderDbExecutor orderDbExecutor, PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.ticketOrderEventRepository = ticketOrderEventRepository;
         this.priceSeatManagerClient = priceSeatManagerClient;
-        this.amqpMessageServiceImpl = amqpMessageServiceImpl;
+        this.asyncPriceSeatManagerClient = asyncPriceSeatManagerClient;
+        this.seatQuotaLedger = seatQuotaLedger;
+        this.seatReservationBatcher = seatReservationBatcher;
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.orderMessageCodec = orderMessageCodec;
+        this.orderIdempotencyStore = orderIdempotencyStore;
+        this.orderQueryRepository = orderQueryRepository;
+        this.flightDetailCache = flightDetailCache;
+        this.userOrderCache = userOrderCache;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.orderExpiryWheel = orderExpiryWheel;
+        this.orderDbExecutor = orderDbExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     public Order createOrder(CreateOrderDto createOrderDto) {
-        ReserveSeatRequest reserveSeatRequest = new ReserveSeatRequest(createOrderDto.getFlight(), createOrderDto.getClassType(),
-                                                                       createOrderDto.getPassengerDtoList().size());
-        boolean reserveSuccess = priceSeatManagerClient.reserveSeat(reserveSeatRequest);
-        if (!reserveSuccess) {
+        return reserveAndSave(createOrderDto, null);
+    }
+
+    @Override
+    public Order createOrder(CreateOrderDto createOrderDto, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createOrder(createOrderDto);
+        }
+        String requestHash = OrderIdempotencyStore.requestHash(createOrderDto);
+        return orderIdempotencyStore.execute(createOrderDto.getUserId(), idempotencyKey, requestHash, () ->
+            findByIdempotencyKey(createOrderDto, idempotencyKey, requestHash).orElseGet(() -> reserveAndSave(createOrderDto, idempotencyKey)));
+    }
+
+    /**
+     * 查找同一用户用该幂等键创建过的订单，请求体与首次不一致时抛出 IdempotencyKeyReusedException。
+     * 早于摘要列上线的订单没有摘要，不做比较
+     */
+    private Optional<Order> findByIdempotencyKey(CreateOrderDto createOrderDto, String idempotencyKey, String requestHash) {
+        return orderRepository.findByUserIdAndIdempotencyKey(createOrderDto.getUserId(), idempotencyKey).map(existing -> {
+            if (existing.getIdempotencyRequestHash() != null && !existing.getIdempotencyRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException("idempotency key " + idempotencyKey + " was used for a different order request");
+            }
+            return transferOrder(existing);
+        });
+    }
+
+    private Order reserveAndSave(CreateOrderDto createOrderDto, String idempotencyKey) {
+        ReserveSeatRequest reserveSeatRequest = toReserveSeatRequest(createOrderDto);
+        if (!reserveSeat(reserveSeatRequest)) {
             throw new NoMoreSeatException();
         }
+        return save(createOrderDto, buildOrderEntity(createOrderDto, idempotencyKey), reserveSeatRequest, idempotencyKey);
+    }
+
+    /**
+     * 座位预留请求发出后先构建订单实体，预留结果返回后保存订单。幂等键查询和保存订单在 OrderDbExecutor 上执行，
+     * 不占用 servlet 线程和座位服务的回调线程。
+     * 不经过合并预留和进程内的幂等等待，同一幂等键的并发请求由唯一索引兜底，后保存的一方归还座位并返回已有订单
+     */
+    @Override
+    public CompletableFuture<Order> createOrderAsync(CreateOrderDto createOrderDto, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return reserveAndSaveAsync(createOrderDto, null);
+        }
+        String requestHash = OrderIdempotencyStore.requestHash(createOrderDto);
+        return CompletableFuture.supplyAsync(() -> findByIdempotencyKey(createOrderDto, idempotencyKey, requestHash), orderDbExecutor)
+                                .thenCompose(existing -> existing.map(CompletableFuture::completedFuture)
+                                                                 .orElseGet(() -> reserveAndSaveAsync(createOrderDto, idempotencyKey)));
+    }
+
+    private CompletableFuture<Order> reserveAndSaveAsync(CreateOrderDto createOrderDto, String idempotencyKey) {
+        ReserveSeatRequest reserveSeatRequest = toReserveSeatRequest(createOrderDto);
+        CompletableFuture<Boolean> reserved = seatQuotaLedger.tryAcquire(reserveSeatRequest.getFlight(), reserveSeatRequest.getClassType(),
+                                                                         reserveSeatRequest.getNumber())
+            ? CompletableFuture.completedFuture(true)
+            : asyncPriceSeatManagerClient.reserveSeat(reserveSeatRequest).whenComplete((success, e) -> {
+                if (Boolean.TRUE.equals(success)) {
+                    seatsChanged(reserveSeatRequest.getFlight());
+                }
+            });
+        TicketOrderEntity ticketOrderEntity = buildOrderEntity(createOrderDto, idempotencyKey);
+        return reserved.thenCompose(success -> {
+            // 没有明确预留成功（包括空结果）都按售罄处理
+            if (!Boolean.TRUE.equals(success)) {
+                throw new NoMoreSeatException();
+            }
+            return saveAsync(createOrderDto, ticketOrderEntity, reserveSeatRequest, idempotencyKey);
+        });
+    }
+
+    /**
+     * 线程池已满时异步归还已预留的座位，并以 OrderOverloadException 结束下单
+     */
+    private CompletableFuture<Order> saveAsync(CreateOrderDto createOrderDto, TicketOrderEntity ticketOrderEntity, ReserveSeatRequest reserveSeatRequest,
+                                               String idempotencyKey) {
+        try {
+            return CompletableFuture.supplyAsync(() -> save(createOrderDto, ticketOrderEntity, reserveSeatRequest, idempotencyKey), orderDbExecutor);
+        } catch (OrderOverloadException e) {
+            ReleaseSeatRequest releaseSeatRequest = new ReleaseSeatRequest(reserveSeatRequest.getFlight(), reserveSeatRequest.getClassType(),
+                                                                           reserveSeatRequest.getNumber());
+            asyncPriceSeatManagerClient.releaseSeat(releaseSeatRequest).whenComplete((released, error) -> {
+                if (Boolean.TRUE.equals(released)) {
+                    seatsChanged(releaseSeatRequest.getFlight());
+                } else {
+                    log.warn("release seat {} failed: {}", releaseSeatRequest, error == null ? "rejected" : error.getMessage());
+                }
+            });
+            throw e;
+        }
+    }
+
+    private Order save(CreateOrderDto createOrderDto, TicketOrderEntity ticketOrderEntity, ReserveSeatRequest reserveSeatRequest, String idempotencyKey) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderRepository.save(ticketOrderEntity);
+                publish(ticketOrderEntity, OrderStatusEnum.CREATED.name());
+            });
+            orderWritten(createOrderDto.getUserId());
+            orderExpiryWheel.schedule(ticketOrderEntity.getId(), ticketOrderEntity.getCreatedAt());
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            // 其他实例已用同一个幂等键创建了订单，归还本次预留的座位并返回已有订单，归还失败不影响返回结果
+            releaseSeatQuietly(reserveSeatRequest);
+            return findByIdempotencyKey(createOrderDto, idempotencyKey, ticketOrderEntity.getIdempotencyRequestHash()).orElseThrow(() -> e);
+        }
+        return transferOrder(ticketOrderEntity);
+    }
+
+    /**
+     * 批量下单：同一航班舱位的订单合并为一次座位预留，预留成功的订单分批在事务中保存，
+     * 按请求顺序返回每个订单的结果，单个订单失败不影响其他订单
+     */
+    @Override
+    public List<BatchOrderResult> createOrders(List<CreateOrderDto> createOrderDtos) {
+        BatchOrderResult[] results = new BatchOrderResult[createOrderDtos.size()];
+        Map<String, List<Integer>> seatGroups = IntStream.range(0, createOrderDtos.size()).boxed()
+                                                         .collect(Collectors.groupingBy(index -> seatGroup(createOrderDtos.get(index)),
+                                                                                        LinkedHashMap::new, Collectors.toList()));
+        List<Integer> reserved = new ArrayList<>();
+        seatGroups.values().forEach(indexes -> reserved.addAll(reserveGroup(createOrderDtos, indexes, results)));
+        Collections.sort(reserved);
+        Lists.partition(reserved, BATCH_CHUNK_SIZE).forEach(chunk -> saveChunk(createOrderDtos, chunk, results));
+        return Arrays.asList(results);
+    }
+
+    private List<Integer> reserveGroup(List<CreateOrderDto> createOrderDtos, List<Integer> indexes, BatchOrderResult[] results) {
+        CreateOrderDto first = createOrderDtos.get(indexes.get(0));
+        int total = indexes.stream().mapToInt(index -> createOrderDtos.get(index).getPassengerDtoList().size()).sum();
+        try {
+            if (priceSeatManagerClient.reserveSeat(new ReserveSeatRequest(first.getFlight(), first.getClassType(), total))) {
+                seatsChanged(first.getFlight());
+                return indexes;
+            }
+        } catch (RuntimeException e) {
+            log.warn("reserve {} seats for {} failed: {}", total, seatGroup(first), e.getMessage());
+            indexes.forEach(index -> results[index] = failed(index, ErrorCode.CRESERVE_EXCEPTION, "服务异常，请稍后再试"));
+            return Collections.emptyList();
+        }
+        if (indexes.size() == 1) {
+            results[indexes.get(0)] = failed(indexes.get(0), ErrorCode.NO_MORE_SEAT, "机票已售罄");
+            return Collections.emptyList();
+        }
+        // 剩余座位不够整组时逐单预留，能满足的订单仍然创建
+        List<Integer> reserved = new ArrayList<>();
+        for (Integer index : indexes) {
+            try {
+                if (reserveSeat(toReserveSeatRequest(createOrderDtos.get(index)))) {
+                    reserved.add(index);
+                } else {
+                    results[index] = failed(index, ErrorCode.NO_MORE_SEAT, "机票已售罄");
+                }
+            } catch (RuntimeException e) {
+                results[index] = failed(index, ErrorCode.CRESERVE_EXCEPTION, "服务异常，请稍后再试");
+            }
+        }
+        return reserved;
+    }
+
+    private void saveChunk(List<CreateOrderDto> createOrderDtos, List<Integer> chunk, BatchOrderResult[] results) {
+        List<TicketOrderEntity> ticketOrderEntities = chunk.stream()
+                                                           .map(index -> buildOrderEntity(createOrderDtos.get(index), null))
+                                                           .collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderRepository.saveAll(ticketOrderEntities);
+                ticketOrderEntities.forEach(entity -> publish(entity, OrderStatusEnum.CREATED.name()));
+            });
+            ticketOrderEntities.stream().map(TicketOrderEntity::getUserId).distinct().forEach(this::orderWritten);
+            ticketOrderEntities.forEach(entity -> orderExpiryWheel.schedule(entity.getId(), entity.getCreatedAt()));
+        } catch (RuntimeException e) {
+            if (chunk.size() > 1) {
+                // 整批保存失败时逐单重试，只让出错的订单失败
+                chunk.forEach(index -> saveChunk(createOrderDtos, Collections.singletonList(index), results));
+                return;
+            }
+            int index = chunk.get(0);
+            log.error("save batch order {} failed", index, e);
+            releaseSeatQuietly(toReserveSeatRequest(createOrderDtos.get(index)));
+            results[index] = failed(index, ErrorCode.CREATE_ORDER_EXCEPTION, "服务异常，请稍后再试");
+            return;
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            results[chunk.get(i)] = BatchOrderResult.builder()
+                                                    .index(chunk.get(i))
+                                                    .status(BatchOrderResult.CREATED)
+                                                    .order(transferOrder(ticketOrderEntities.get(i)))
+                                                    .build();
+        }
+    }
+
+    private BatchOrderResult failed(int index, ErrorCode errorCode, String message) {
+        return BatchOrderResult.builder().index(index).status(BatchOrderResult.FAILED).errorCode(errorCode.getValue()).message(message).build();
+    }
+
+    private String seatGroup(CreateOrderDto createOrderDto) {
+        return createOrderDto.getFlight() + "/" + createOrderDto.getClassType();
+    }
+
+    private ReserveSeatRequest toReserveSeatRequest(CreateOrderDto createOrderDto) {
+        return new ReserveSeatRequest(createOrderDto.getFlight(), createOrderDto.getClassType(), createOrderDto.getPassengerDtoList().size());
+    }
+
+    private boolean reserveSeat(ReserveSeatRequest reserveSeatRequest) {
+        if (seatQuotaLedger.tryAcquire(reserveSeatRequest.getFlight(), reserveSeatRequest.getClassType(), reserveSeatRequest.getNumber())) {
+            return true;
+        }
+        boolean reserved = seatReservationBatcher.reserve(reserveSeatRequest);
+        if (reserved) {
+            seatsChanged(reserveSeatRequest.getFlight());
+        }
+        return reserved;
+    }
+
+    /**
+     * 座位服务中该航班的余座已变化，清除本实例及其他实例缓存的航班详情。
+     * 从本地配额扣减的座位已在领取配额时计入座位服务，不需要清除
+     */
+    private void seatsChanged(String flight) {
+        flightDetailCache.invalidate(flight);
+    }
+
+    private TicketOrderEntity buildOrderEntity(CreateOrderDto createOrderDto, String idempotencyKey) {
         TicketOrderEntity ticketOrderEntity = transferToOrderEntity(createOrderDto);
-        List<PassengerEntity> passengerEntities = createOrderDto.getPassengerDtoList().stream().map(passenger -> {
-            PassengerEntity passengerEntity = new PassengerEntity();
-            BeanUtils.copyProperties(passenger, passengerEntity);
-            passengerEntity.setOrder(ticketOrderEntity);
-            return passengerEntity;
-        }).collect(Collectors.toList());
+        ticketOrderEntity.setIdempotencyKey(idempotencyKey);
+        if (idempotencyKey != null) {
+            ticketOrderEntity.setIdempotencyRequestHash(OrderIdempotencyStore.requestHash(createOrderDto));
+        }
+        List<PassengerEntity> passengerEntities = new ArrayList<>(createOrderDto.getPassengerDtoList().size());
+        for (CreateOrderDto.PassengerDto passenger : createOrderDto.getPassengerDtoList()) {
+            passengerEntities.add(transferToPassengerEntity(passenger, ticketOrderEntity));
+        }
         TicketOrderEventEntity ticketOrderEventEntity = TicketOrderEventEntity.builder().status(OrderStatusEnum.CREATED.name()).build();
         ticketOrderEventEntity.setOrder(ticketOrderEntity);
         ticketOrderEntity.setPassengers(passengerEntities);
-        ticketOrderEntity.setEvents(Collections.singletonList(ticketOrderEventEntity));
-        orderRepository.save(ticketOrderEntity);
+        ticketOrderEntity.setEvents(newArrayList(ticketOrderEventEntity));
+        return ticketOrderEntity;
+    }
 
-//        publish(ticketOrderEntity, OrderStatusEnum.CREATED.name());
-        return transferOrder(ticketOrderEntity);
+    private void releaseSeat(ReserveSeatRequest reserveSeatRequest) {
+        ReleaseSeatRequest releaseSeatRequest = new ReleaseSeatRequest(reserveSeatRequest.getFlight(), reserveSeatRequest.getClassType(),
+                                                                       reserveSeatRequest.getNumber());
+        if (!priceSeatManagerClient.releaseSeat(releaseSeatRequest)) {
+            throw new BusinessException(ErrorCode.ORDER_RELEASE_SEAT_FAILED, "release seat failed: " + releaseSeatRequest);
+        }
+        seatsChanged(releaseSeatRequest.getFlight());
+    }
+
+    private void releaseSeatQuietly(ReserveSeatRequest reserveSeatRequest) {
+        try {
+            releaseSeat(reserveSeatRequest);
+        } catch (RuntimeException e) {
+            log.warn("release seat {} failed: {}", reserveSeatRequest, e.getMessage());
+        }
     }
 
     private TicketOrderEntity transferToOrderEntity(CreateOrderDto createOrderDto) {
@@ -77,22 +374,86 @@ public class OrderServiceImpl implements OrderService {
                                 .build();
     }
 
+    private PassengerEntity transferToPassengerEntity(CreateOrderDto.PassengerDto passenger, TicketOrderEntity ticketOrderEntity) {
+        PassengerEntity passengerEntity = new PassengerEntity();
+        passengerEntity.setName(passenger.getName());
+        passengerEntity.setAgeType(passenger.getAgeType());
+        passengerEntity.setIdentificationNumber(passenger.getIdentificationNumber());
+        passengerEntity.setMobile(passenger.getMobile());
+        passengerEntity.setPrice(passenger.getPrice());
+        passengerEntity.setBaggageWeight(passenger.getBaggageWeight());
+        passengerEntity.setInsuranceId(passenger.getInsuranceId());
+        passengerEntity.setInsuranceName(passenger.getInsuranceName());
+        passengerEntity.setInsurancePrice(passenger.getInsurancePrice());
+        passengerEntity.setOrder(ticketOrderEntity);
+        return passengerEntity;
+    }
+
     private void publish(TicketOrderEntity ticketOrderEntity, String status) {
         OrderMessage orderMessage = OrderMessage.from(ticketOrderEntity);
         orderMessage.setPassengerList(OrderMessage.transferPassenger(ticketOrderEntity.getPassengers()));
         orderMessage.setStatus(status);
-        amqpMessageServiceImpl.sendMsg(JSON.toJSONString(orderMessage));
+        EncodedMessage encodedMessage = orderMessageCodec.encode(orderMessage);
+        orderOutboxRepository.save(OrderOutboxEntity.builder()
+                                                    .orderId(ticketOrderEntity.getId())
+                                                    .contentType(encodedMessage.getContentType())
+                                                    .payload(encodedMessage.getBody())
+                                                    .build());
     }
 
     @Override
-    public List<Order> getOrders(Long userId) {
-        List<TicketOrderEntity> ticketOrderEntityList = orderRepository.findByUserId(userId);
-        return ticketOrderEntityList.stream().map(this::transferOrder).collect(Collectors.toList());
+    public Order changeStatus(Long orderId, OrderStatusEnum target) {
+        TicketOrderEntity ticketOrderEntity = transactionTemplate.execute(status -> {
+            TicketOrderEntity entity = orderRepository.findById(orderId)
+                                                      .orElseThrow(() -> new OrderNotFoundException("order " + orderId + " not found"));
+            OrderStatusEnum current = OrderStatusEnum.valueOf(entity.getStatus());
+            if (!OrderStatusTransitions.canTransit(current, target)) {
+                throw new OrderStatusTransitionException("order " + orderId + " can not change from " + current + " to " + target);
+            }
+            // 以当前状态为条件更新，不加锁；其他实例抢先修改时放弃本次事件
+            if (orderRepository.compareAndSetStatus(orderId, current.name(), target.name()) == 0) {
+                throw new OrderStatusTransitionException("order " + orderId + " is no longer " + current);
+            }
+            entity.setStatus(target.name());
+            TicketOrderEventEntity ticketOrderEventEntity = TicketOrderEventEntity.builder().status(target.name()).build();
+            ticketOrderEventEntity.setOrder(entity);
+            ticketOrderEventRepository.save(ticketOrderEventEntity);
+            List<TicketOrderEventEntity> events = newArrayList(ticketOrderEventEntity);
+            events.addAll(entity.getEvents());
+            entity.setEvents(events);
+            publish(entity, target.name());
+            return entity;
+        });
+        orderWritten(ticketOrderEntity.getUserId());
+        return transferOrder(ticketOrderEntity);
+    }
+
+    @Override
+    public OrderPage getOrders(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (cursor == null && userOrderCache.isEnabled()) {
+            // 读主库的粘滞标记只在下单的实例上，其他实例可能从延迟的从库读到旧首页并缓存到 ttl 结束，因此缓存的首页从主库加载
+            return userOrderCache.get(userId, pageSize, () -> ReplicaRoutingContext.onPrimary(() -> orderQueryRepository.findPage(userId, null, pageSize)));
+        }
+        return findPage(userId, cursor == null ? null : OrderCursor.decode(cursor), pageSize);
+    }
+
+    private OrderPage findPage(Long userId, OrderCursor after, int pageSize) {
+        if (readYourWritesTracker.isSticky(userId)) {
+            // 刚下过单的用户读主库，避免从库延迟导致看不到新订单
+            return ReplicaRoutingContext.onPrimary(() -> orderQueryRepository.findPage(userId, after, pageSize));
+        }
+        return orderQueryRepository.findPage(userId, after, pageSize);
+    }
+
+    private void orderWritten(Long userId) {
+        readYourWritesTracker.markWritten(userId);
+        userOrderCache.invalidate(userId);
     }
 
     @Override
     public FlightDetail getFlightDetail(String flight) {
-        return priceSeatManagerClient.getFlightDetail(flight);
+        return flightDetailCache.get(flight);
     }
 
     private Order transferOrder(TicketOrderEntity ticketOrderEntity) {
@@ -102,7 +463,13 @@ public class OrderServiceImpl implements OrderService {
         return order;
     }
 
-    public void cancelOrder(Long orderId) {
-
+    /**
+     * 取消订单并归还座位，座位归还失败只记录日志，由座位服务对账
+     */
+    @Override
+    public Order cancelOrder(Long orderId) {
+        Order order = changeStatus(orderId, OrderStatusEnum.CANCELED);
+        releaseSeatQuietly(new ReserveSeatRequest(order.getFlight(), order.getClassType(), order.getPassengerList().size()));
+        return order;
     }
 }
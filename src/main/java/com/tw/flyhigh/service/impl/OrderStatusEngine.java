@@ -0,0 +1,82 @@
+package com.tw.flyhigh.service.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.service.OrderService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单状态事件的执行引擎：按订单 id 分到固定的单线程执行器上，
+ * 同一订单的事件按提交顺序依次执行，不同订单的事件在各个分片上并行执行。
+ */
+@Slf4j
+@Component
+public class OrderStatusEngine {
+    private final OrderService orderService;
+    private final ThreadPoolExecutor[] stripes;
+
+    public OrderStatusEngine(OrderService orderService, MeterRegistry meterRegistry,
+                             @Value("${order.status-engine.stripes:16}") int stripes,
+                             @Value("${order.status-engine.queue-capacity:10000}") int queueCapacity) {
+        this.orderService = orderService;
+        this.stripes = new ThreadPoolExecutor[stripes];
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("order-status-%d").setDaemon(true).build();
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueCapacity),
+                                                     threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        }
+        Gauge.builder("order.status.engine.queued", this.stripes, executors -> Arrays.stream(executors).mapToInt(executor -> executor.getQueue().size()).sum())
+             .description("order status events waiting for their stripe")
+             .register(meterRegistry);
+    }
+
+    /**
+     * 提交状态事件，返回的 future 在事件执行后完成，非法流转时以 OrderStatusTransitionException 异常完成
+     */
+    public CompletableFuture<Order> submit(Long orderId, OrderStatusEnum target) {
+        CompletableFuture<Order> result = new CompletableFuture<>();
+        try {
+            stripeOf(orderId).execute(() -> {
+                try {
+                    result.complete(orderService.changeStatus(orderId, target));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new OrderOverloadException("order status queue is full");
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private ThreadPoolExecutor stripeOf(Long orderId) {
+        int hash = Long.hashCode(orderId);
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+}
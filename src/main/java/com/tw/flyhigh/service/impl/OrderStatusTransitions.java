@@ -0,0 +1,53 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.BOARDED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.CANCELED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.CHANGED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.CREATED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.FINISHED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.INVOICED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.PAID;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.SEAT_CONFIRMED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.SECURITY_CHECKED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.SYSTEM_REFUNDED;
+import static com.tw.flyhigh.common.enums.OrderStatusEnum.USER_REFUNDED;
+
+/**
+ * 订单状态流转表，未列出的状态（已取消、已退款、已开票）为终态
+ */
+public final class OrderStatusTransitions {
+    private static final Map<OrderStatusEnum, Set<OrderStatusEnum>> TRANSITIONS = new EnumMap<>(OrderStatusEnum.class);
+    /**
+     * 流转到这些状态时需要归还座位，只能通过取消等专门的接口流转，不能作为通用状态事件提交
+     */
+    private static final Set<OrderStatusEnum> SEAT_RETURNING = EnumSet.of(CANCELED);
+
+    static {
+        TRANSITIONS.put(CREATED, EnumSet.of(PAID, CANCELED));
+        TRANSITIONS.put(PAID, EnumSet.of(SEAT_CONFIRMED, CHANGED, USER_REFUNDED, SYSTEM_REFUNDED));
+        TRANSITIONS.put(SEAT_CONFIRMED, EnumSet.of(SECURITY_CHECKED, CHANGED, USER_REFUNDED, SYSTEM_REFUNDED));
+        TRANSITIONS.put(CHANGED, EnumSet.of(SEAT_CONFIRMED, USER_REFUNDED, SYSTEM_REFUNDED));
+        TRANSITIONS.put(SECURITY_CHECKED, EnumSet.of(BOARDED));
+        TRANSITIONS.put(BOARDED, EnumSet.of(FINISHED));
+        TRANSITIONS.put(FINISHED, EnumSet.of(INVOICED));
+    }
+
+    private OrderStatusTransitions() {
+    }
+
+    public static boolean canTransit(OrderStatusEnum from, OrderStatusEnum to) {
+        return TRANSITIONS.getOrDefault(from, Collections.emptySet()).contains(to);
+    }
+
+    public static boolean returnsSeats(OrderStatusEnum status) {
+        return SEAT_RETURNING.contains(status);
+    }
+}
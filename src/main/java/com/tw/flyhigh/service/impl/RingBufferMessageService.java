@@ -0,0 +1,260 @@
+package com.tw.flyhigh.service.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.config.MessageBusProperties;
+import com.tw.flyhigh.dto.EncodedMessage;
+import com.tw.flyhigh.service.MessageService;
+import com.tw.flyhigh.service.OrderMessageConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内的订单消息总线：固定大小的环形队列，发送方按序号占用槽位，写入后标记该槽的序号表示已发布；
+ * 每个消费者在自己的线程上维护已消费序号，一次取走所有已发布的连续消息批量处理。
+ * 发送方只有 outbox relay 一个线程，占用序号的 CAS 基本没有竞争；槽位被最慢的消费者处理完之前不会被覆盖，
+ * 队列满时发送方等待，超过 publishTimeout 抛出 OrderOverloadException，outbox 下次重发。
+ * 消息只在内存中，进程退出时未消费的消息会丢失，不能代替 broker 的持久化。
+ * 至少需要注册一个 OrderMessageConsumer，否则启动失败。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "order.message-bus", name = "type", havingValue = "ring-buffer")
+public class RingBufferMessageService implements MessageService {
+    private final MessageBusProperties properties;
+    private final EncodedMessage[] entries;
+    private final AtomicLongArray published;
+    private final int mask;
+    /**
+     * 最后一个被占用的序号
+     */
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Worker> workers;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Counter publishedMessages;
+    private final Counter consumerFailures;
+    private final DistributionSummary batchSize;
+    private volatile boolean running = true;
+
+    @Autowired
+    public RingBufferMessageService(MessageBusProperties properties, ObjectProvider<OrderMessageConsumer> consumers, MeterRegistry meterRegistry) {
+        this(properties, consumers.orderedStream().collect(Collectors.toList()), meterRegistry);
+    }
+
+    public RingBufferMessageService(MessageBusProperties properties, List<OrderMessageConsumer> consumers, MeterRegistry meterRegistry) {
+        if (consumers.isEmpty()) {
+            // 没有消费者时槽位永远不会被占满，消息会被 outbox 当作已发送而静默丢失
+            throw new IllegalStateException("order.message-bus.type=ring-buffer requires at least one OrderMessageConsumer bean");
+        }
+        int bufferSize = Integer.highestOneBit(Math.max(1, properties.getBufferSize() - 1)) << 1;
+        this.properties = properties;
+        this.entries = new EncodedMessage[bufferSize];
+        this.published = new AtomicLongArray(bufferSize);
+        this.mask = bufferSize - 1;
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+        this.publishedMessages = Counter.builder("order.message-bus.published")
+                                        .description("order messages published to the in-process bus")
+                                        .register(meterRegistry);
+        this.consumerFailures = Counter.builder("order.message-bus.consumer.failures")
+                                       .description("message batches a consumer threw on")
+                                       .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("order.message-bus.batch.size")
+                                            .description("order messages handed to a consumer per call")
+                                            .register(meterRegistry);
+        Gauge.builder("order.message-bus.remaining", this, RingBufferMessageService::remainingCapacity)
+             .description("free slots in the in-process bus")
+             .register(meterRegistry);
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("order-message-bus-%d").setDaemon(true).build();
+        this.workers = consumers.stream().map(Worker::new).collect(Collectors.toList());
+        workers.forEach(worker -> threadFactory.newThread(worker).start());
+    }
+
+    @Override
+    public void sendMsg(EncodedMessage message) {
+        long sequence = claim(1);
+        store(sequence, message);
+        publishedMessages.increment();
+        signal();
+    }
+
+    @Override
+    public void sendMsgs(List<EncodedMessage> messages) {
+        for (List<EncodedMessage> chunk : Lists.partition(messages, entries.length)) {
+            long first = claim(chunk.size()) - chunk.size() + 1;
+            for (int i = 0; i < chunk.size(); i++) {
+                store(first + i, chunk.get(i));
+            }
+            publishedMessages.increment(chunk.size());
+            signal();
+        }
+    }
+
+    public long remainingCapacity() {
+        return entries.length - (cursor.get() - minConsumedSequence());
+    }
+
+    /**
+     * 停止接收消息，等待消费者处理完已发布的消息
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        signal();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        for (Worker worker : workers) {
+            worker.awaitStopped(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * 占用 n 个连续序号，返回最后一个
+     */
+    private long claim(int n) {
+        long deadline = System.nanoTime() + properties.getPublishTimeout().toNanos();
+        while (true) {
+            if (!running) {
+                throw new IllegalStateException("order message bus is shut down");
+            }
+            long current = cursor.get();
+            long next = current + n;
+            // 要占用的槽位上一圈的消息还没被所有消费者处理完
+            if (next - entries.length > minConsumedSequence()) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new OrderOverloadException("order message bus is full");
+                }
+                LockSupport.parkNanos(1_000);
+                continue;
+            }
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private void store(long sequence, EncodedMessage message) {
+        int index = (int) (sequence & mask);
+        entries[index] = message;
+        published.lazySet(index, sequence);
+    }
+
+    private void signal() {
+        if (properties.getWaitStrategy() != MessageBusProperties.WaitStrategy.BLOCKING) {
+            return;
+        }
+        lock.lock();
+        try {
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long minConsumedSequence() {
+        long min = cursor.get();
+        for (Worker worker : workers) {
+            min = Math.min(min, worker.sequence.get());
+        }
+        return min;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) (sequence & mask)) == sequence;
+    }
+
+    private final class Worker implements Runnable {
+        private final OrderMessageConsumer consumer;
+        /**
+         * 已处理的最后一个序号
+         */
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private volatile boolean stopped;
+
+        private Worker(OrderMessageConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void run() {
+            long next = 0;
+            while (true) {
+                if (!isPublished(next)) {
+                    if (!running && cursor.get() < next) {
+                        break;
+                    }
+                    idle(next);
+                    continue;
+                }
+                List<EncodedMessage> batch = new ArrayList<>();
+                long last = next;
+                while (batch.size() < properties.getMaxBatchSize() && isPublished(last)) {
+                    batch.add(entries[(int) (last & mask)]);
+                    last++;
+                }
+                batchSize.record(batch.size());
+                try {
+                    consumer.onMessages(batch);
+                } catch (RuntimeException e) {
+                    consumerFailures.increment();
+                    log.error("order message consumer {} failed on {} messages", consumer.getClass().getSimpleName(), batch.size(), e);
+                }
+                sequence.lazySet(last - 1);
+                next = last;
+            }
+            stopped = true;
+        }
+
+        private void idle(long next) {
+            switch (properties.getWaitStrategy()) {
+                case BUSY_SPIN:
+                    break;
+                case YIELDING:
+                    Thread.yield();
+                    break;
+                case SLEEPING:
+                    LockSupport.parkNanos(100_000);
+                    break;
+                default:
+                    lock.lock();
+                    try {
+                        if (running && !isPublished(next)) {
+                            available.await(1, TimeUnit.MILLISECONDS);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        lock.unlock();
+                    }
+            }
+        }
+
+        private void awaitStopped(long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (!stopped && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+    }
+}
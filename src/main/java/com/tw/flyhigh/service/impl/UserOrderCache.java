@@ -0,0 +1,106 @@
+package com.tw.flyhigh.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.tw.flyhigh.config.UserOrderCacheProperties;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
+import com.tw.flyhigh.integration.mq.CacheInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * 按 userId 缓存订单列表首页。用户下单或订单状态变化后调用 invalidate，
+ * 用分段版本号保证失效前开始的查询不会把旧数据写回缓存。失效同时通过 CacheInvalidationBus 广播给其他实例。
+ */
+@Component
+public class UserOrderCache {
+    private static final int ORDER_BYTES = 512;
+    private static final int PASSENGER_BYTES = 384;
+    private static final int EVENT_BYTES = 128;
+    private static final int VERSION_STRIPES = 1024;
+
+    private static final String INVALIDATION_TYPE = "user";
+
+    private final UserOrderCacheProperties properties;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Cache<Long, CachedPage> pages;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public UserOrderCache(UserOrderCacheProperties properties, MeterRegistry meterRegistry, CacheInvalidationBus cacheInvalidationBus) {
+        this.properties = properties;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.pages = CacheBuilder.newBuilder()
+                                 .maximumWeight(properties.getMaxMemory().toBytes())
+                                 .weigher((Long userId, CachedPage cached) -> cached.weight)
+                                 .expireAfterWrite(properties.getTtl().toMillis(), TimeUnit.MILLISECONDS)
+                                 .recordStats()
+                                 .build();
+        GuavaCacheMetrics.monitor(meterRegistry, pages, "user.orders", Collections.emptyList());
+        cacheInvalidationBus.subscribe(INVALIDATION_TYPE, userId -> evictLocal(Long.valueOf(userId)));
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public OrderPage get(Long userId, int limit, Supplier<OrderPage> loader) {
+        if (!properties.isEnabled() || userId == null) {
+            return loader.get();
+        }
+        CachedPage cached = pages.getIfPresent(userId);
+        if (cached != null && cached.limit == limit) {
+            return cached.page;
+        }
+        int stripe = stripe(userId);
+        long version = versions.get(stripe);
+        OrderPage page = loader.get();
+        pages.put(userId, new CachedPage(limit, page));
+        if (versions.get(stripe) != version) {
+            // 查询期间发生了写入，查到的可能是旧数据
+            pages.invalidate(userId);
+        }
+        return page;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evictLocal(userId);
+        cacheInvalidationBus.publish(INVALIDATION_TYPE, userId);
+    }
+
+    private void evictLocal(Long userId) {
+        versions.incrementAndGet(stripe(userId));
+        pages.invalidate(userId);
+    }
+
+    private int stripe(Long userId) {
+        return (Long.hashCode(userId) & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+
+    private static final class CachedPage {
+        private final int limit;
+        private final OrderPage page;
+        private final int weight;
+
+        CachedPage(int limit, OrderPage page) {
+            this.limit = limit;
+            this.page = page;
+            this.weight = page.getOrders().stream().mapToInt(CachedPage::weigh).sum() + ORDER_BYTES;
+        }
+
+        private static int weigh(Order order) {
+            int passengers = order.getPassengerList() == null ? 0 : order.getPassengerList().size();
+            int events = order.getOrderEventList() == null ? 0 : order.getOrderEventList().size();
+            return ORDER_BYTES + passengers * PASSENGER_BYTES + events * EVENT_BYTES;
+        }
+    }
+}
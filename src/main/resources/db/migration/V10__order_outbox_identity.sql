@@ -0,0 +1 @@
+delete from id_block where segment_name = 'order_outbox';
@@ -0,0 +1,7 @@
+create table order_outbox
+(
+	id bigint auto_increment primary key,
+	order_id bigint not null,
+	payload longtext not null,
+	created_at datetime not null
+);
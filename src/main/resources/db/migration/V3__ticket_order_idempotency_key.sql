@@ -0,0 +1,3 @@
+alter table ticket_order add column idempotency_key varchar(64) null;
+
+create unique index uk_ticket_order_user_idempotency on ticket_order (user_id, idempotency_key);
@@ -0,0 +1,12 @@
+create table id_block
+(
+	segment_name varchar(255) not null primary key,
+	next_val bigint not null
+);
+
+insert into id_block (segment_name, next_val) select 'ticket_order', coalesce(max(id), 0) + 1 from ticket_order;
+insert into id_block (segment_name, next_val) select 'ticket_order_event', coalesce(max(id), 0) + 1 from ticket_order_event;
+insert into id_block (segment_name, next_val) select 'passenger', coalesce(max(id), 0) + 1 from passenger;
+insert into id_block (segment_name, next_val) select 'plane_ticket', coalesce(max(id), 0) + 1 from plane_ticket;
+insert into id_block (segment_name, next_val) select 'plane_ticket_event', coalesce(max(id), 0) + 1 from plane_ticket_event;
+insert into id_block (segment_name, next_val) select 'order_outbox', coalesce(max(id), 0) + 1 from order_outbox;
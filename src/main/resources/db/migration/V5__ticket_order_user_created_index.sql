@@ -0,0 +1 @@
+create index idx_ticket_order_user_created on ticket_order (user_id, created_at, id);
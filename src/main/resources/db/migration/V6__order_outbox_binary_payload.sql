@@ -0,0 +1,3 @@
+alter table order_outbox
+	modify payload longblob not null,
+	add column content_type varchar(64) not null default 'application/json' after order_id;
@@ -0,0 +1 @@
+create index idx_ticket_order_status on ticket_order (status, id);
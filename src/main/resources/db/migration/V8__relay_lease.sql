@@ -0,0 +1,8 @@
+create table relay_lease
+(
+	name varchar(64) not null primary key,
+	owner varchar(64) null,
+	lease_until datetime(3) not null
+);
+
+insert into relay_lease (name, owner, lease_until) values ('order-outbox', null, '1970-01-01 00:00:01');
@@ -0,0 +1 @@
+alter table ticket_order add column idempotency_request_hash char(64) null after idempotency_key;
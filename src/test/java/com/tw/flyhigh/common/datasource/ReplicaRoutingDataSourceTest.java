@@ -0,0 +1,86 @@
+package com.tw.flyhigh.common.datasource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+class ReplicaRoutingDataSourceTest {
+    private final AtomicReference<Duration> replicaLag = new AtomicReference<>(Duration.ZERO);
+    private ReplicaRoutingDataSource routingDataSource;
+    private ReplicaLagMonitor replicaLagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReplicaRoutingDataSource(database("primary"), Collections.singletonMap("replica-1", database("replica")));
+        routingDataSource.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        replicaLagMonitor = new ReplicaLagMonitor(routingDataSource, replica -> replicaLag.get(), Duration.ofSeconds(2));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void should_route_read_only_transaction_to_replica() {
+        Assertions.assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void should_route_writes_and_non_transactional_reads_to_primary() {
+        Assertions.assertEquals("primary", readWrite.execute(status -> whoAmI()));
+        Assertions.assertEquals("primary", whoAmI());
+    }
+
+    @Test
+    void should_fall_back_to_primary_while_replica_lags() {
+        replicaLag.set(Duration.ofSeconds(30));
+        replicaLagMonitor.check();
+        Assertions.assertEquals("primary", readOnly.execute(status -> whoAmI()));
+
+        replicaLag.set(Duration.ZERO);
+        replicaLagMonitor.check();
+        Assertions.assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void should_fall_back_to_primary_when_replication_stopped() {
+        replicaLag.set(null);
+        replicaLagMonitor.check();
+
+        Assertions.assertEquals("primary", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void should_read_primary_when_forced_for_read_your_writes() {
+        Assertions.assertEquals("primary", ReplicaRoutingContext.onPrimary(() -> readOnly.execute(status -> whoAmI())));
+        Assertions.assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-routing;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(20))");
+        jdbcTemplate.execute("delete from node");
+        jdbcTemplate.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,32 @@
+package com.tw.flyhigh.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+class VirtualThreadsTest {
+
+    @Test
+    void should_run_tasks_on_named_virtual_threads_on_jdk_21() throws Exception {
+        Assumptions.assumeTrue(VirtualThreads.isSupported());
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("order-");
+        Thread thread = executor.submit(Thread::currentThread).get(1, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        Assertions.assertTrue(VirtualThreads.isVirtual(thread));
+        Assertions.assertTrue(thread.getName().startsWith("order-"));
+        Assertions.assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+    }
+
+    @Test
+    void should_fail_fast_before_jdk_21() {
+        Assumptions.assumeFalse(VirtualThreads.isSupported());
+
+        Assertions.assertThrows(IllegalStateException.class, () -> VirtualThreads.factory("order-"));
+        Assertions.assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+    }
+}
@@ -3,9 +3,20 @@ package com.tw.flyhigh.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tw.flyhigh.OrderFixture;
 import com.tw.flyhigh.common.ExceptionHandlerAdvice;
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
 import com.tw.flyhigh.common.exception.BusinessException;
+import com.tw.flyhigh.common.exception.ErrorCode;
 import com.tw.flyhigh.common.exception.NoMoreSeatException;
+import com.tw.flyhigh.common.exception.OrderNotFoundException;
+import com.tw.flyhigh.common.exception.OrderStatusTransitionException;
+import com.tw.flyhigh.dto.BatchCreateOrderDto;
+import com.tw.flyhigh.dto.BatchOrderResult;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
+import com.tw.flyhigh.dto.OrderTicket;
+import com.tw.flyhigh.service.impl.OrderAcceptancePipeline;
 import com.tw.flyhigh.service.impl.OrderServiceImpl;
+import com.tw.flyhigh.service.impl.OrderStatusEngine;
 import feign.FeignException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -15,17 +26,27 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ContextConfiguration(classes = {OrderController.class})
@@ -38,6 +59,12 @@ class OrderControllerTest {
     @MockBean
     private OrderServiceImpl orderServiceImpl;
 
+    @MockBean
+    private OrderAcceptancePipeline orderAcceptancePipeline;
+
+    @MockBean
+    private OrderStatusEngine orderStatusEngine;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
@@ -66,6 +93,37 @@ class OrderControllerTest {
             .andExpect(jsonPath("userId").value(12L));
     }
 
+    @Test
+    void should_create_order_without_blocking_servlet_thread() throws Exception {
+        when(orderServiceImpl.createOrderAsync(OrderFixture.getCreateOrderDto(), null))
+            .thenReturn(CompletableFuture.completedFuture(OrderFixture.getOrder()));
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build();
+        MvcResult result = mockMvc.perform(post("/orders").param("nonBlocking", "true").contentType(MediaType.APPLICATION_JSON)
+                                               .content(objectMapper.writeValueAsString(OrderFixture.getCreateOrderDto())))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("flight").value("MU2151"));
+        verify(orderServiceImpl, never()).createOrder(any());
+    }
+
+    @Test
+    void should_create_order_without_blocking_failed_when_no_more_seat() throws Exception {
+        CompletableFuture<Order> noMoreSeat = new CompletableFuture<>();
+        noMoreSeat.completeExceptionally(new NoMoreSeatException());
+        when(orderServiceImpl.createOrderAsync(OrderFixture.getCreateOrderDto(), null)).thenReturn(noMoreSeat);
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build();
+        MvcResult result = mockMvc.perform(post("/orders").param("nonBlocking", "true").contentType(MediaType.APPLICATION_JSON)
+                                               .content(objectMapper.writeValueAsString(OrderFixture.getCreateOrderDto())))
+                                  .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isNotFound())
+            .andExpect(content().string("机票已售罄"));
+    }
+
     @Test
     void should_create_order_failed_when_no_more_seat() throws Exception {
         doThrow(NoMoreSeatException.class).when(this.orderServiceImpl).createOrder(OrderFixture.getCreateOrderDto());
@@ -112,37 +170,192 @@ class OrderControllerTest {
             .andExpect(content().string("服务异常，请稍后再试"));
     }
 
+    @Test
+    void should_accept_order_asynchronously_when_client_prefers_respond_async() throws Exception {
+        when(orderAcceptancePipeline.isEnabled()).thenReturn(true);
+        when(orderAcceptancePipeline.submit(OrderFixture.getCreateOrderDto(), null))
+            .thenReturn(OrderTicket.builder().token("token-1").status(OrderTicket.PENDING).build());
+
+        MockMvcBuilders.standaloneSetup(this.orderController).build()
+            .perform(post("/orders").header("Prefer", "respond-async").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(OrderFixture.getCreateOrderDto())))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", "/orders/tickets/token-1"))
+            .andExpect(jsonPath("token").value("token-1"))
+            .andExpect(jsonPath("status").value("PENDING"));
+        verify(orderServiceImpl, never()).createOrder(any());
+    }
+
+    @Test
+    void should_create_order_synchronously_when_async_acceptance_disabled() throws Exception {
+        when(orderAcceptancePipeline.isEnabled()).thenReturn(false);
+        when(this.orderServiceImpl.createOrder(OrderFixture.getCreateOrderDto())).thenReturn(OrderFixture.getOrder());
+
+        MockMvcBuilders.standaloneSetup(this.orderController).build()
+            .perform(post("/orders").header("Prefer", "respond-async").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(OrderFixture.getCreateOrderDto())))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("flight").value("MU2151"));
+    }
+
+    @Test
+    void should_create_order_with_idempotency_key() throws Exception {
+        when(this.orderServiceImpl.createOrder(OrderFixture.getCreateOrderDto(), "key-1")).thenReturn(OrderFixture.getOrder());
+
+        MockMvcBuilders.standaloneSetup(this.orderController).build()
+            .perform(post("/orders").header("Idempotency-Key", "key-1").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(OrderFixture.getCreateOrderDto())))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("flight").value("MU2151"));
+        verify(orderServiceImpl, never()).createOrder(any());
+    }
+
+    @Test
+    void should_reject_idempotency_key_longer_than_64_characters() throws Exception {
+        MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build()
+            .perform(post("/orders").header("Idempotency-Key", String.join("", Collections.nCopies(65, "k"))).contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(OrderFixture.getCreateOrderDto())))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("code").value("10001"));
+        verifyNoInteractions(orderServiceImpl);
+    }
+
+    @Test
+    void should_create_orders_in_batch_with_result_per_order() throws Exception {
+        BatchCreateOrderDto batchCreateOrderDto = new BatchCreateOrderDto(Arrays.asList(OrderFixture.getCreateOrderDto(), OrderFixture.getCreateOrderDto()));
+        when(this.orderServiceImpl.createOrders(batchCreateOrderDto.getOrders())).thenReturn(Arrays.asList(
+            BatchOrderResult.builder().index(0).status(BatchOrderResult.CREATED).order(OrderFixture.getOrder()).build(),
+            BatchOrderResult.builder().index(1).status(BatchOrderResult.FAILED).errorCode("10009").message("机票已售罄").build()));
+
+        MockMvcBuilders.standaloneSetup(this.orderController).build()
+            .perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchCreateOrderDto)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].status").value("CREATED"))
+            .andExpect(jsonPath("$[0].order.flight").value("MU2151"))
+            .andExpect(jsonPath("$[1].status").value("FAILED"))
+            .andExpect(jsonPath("$[1].errorCode").value("10009"));
+    }
+
+    @Test
+    void should_get_orders_page_with_next_cursor_header() throws Exception {
+        when(this.orderServiceImpl.getOrders(12L, "cursor-1", 1))
+            .thenReturn(OrderPage.builder().orders(Arrays.asList(OrderFixture.getOrder())).nextCursor("cursor-2").build());
+
+        MockMvcBuilders.standaloneSetup(this.orderController).build()
+            .perform(get("/orders").param("userId", "12").param("cursor", "cursor-1").param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Next-Cursor", "cursor-2"))
+            .andExpect(jsonPath("$[0].flight").value("MU2151"));
+    }
+
+    @Test
+    void should_apply_order_status_event() throws Exception {
+        Order paid = OrderFixture.getOrder();
+        paid.setStatus("PAID");
+        when(orderStatusEngine.submit(123456L, OrderStatusEnum.PAID)).thenReturn(CompletableFuture.completedFuture(paid));
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build();
+        MvcResult result = mockMvc.perform(post("/orders/{orderId}/status-events", "123456").contentType(MediaType.APPLICATION_JSON)
+                                               .content("{\"status\":\"PAID\"}"))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("status").value("PAID"));
+    }
+
+    @Test
+    void should_return_conflict_when_status_transition_is_illegal() throws Exception {
+        CompletableFuture<Order> illegal = new CompletableFuture<>();
+        illegal.completeExceptionally(new OrderStatusTransitionException("order 123456 can not change from CREATED to BOARDED"));
+        when(orderStatusEngine.submit(123456L, OrderStatusEnum.BOARDED)).thenReturn(illegal);
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build();
+        MvcResult result = mockMvc.perform(post("/orders/{orderId}/status-events", "123456").contentType(MediaType.APPLICATION_JSON)
+                                               .content("{\"status\":\"BOARDED\"}"))
+                                  .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("code").value("10010"));
+    }
+
+    @Test
+    void should_reject_cancel_submitted_as_status_event() throws Exception {
+        MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build()
+            .perform(post("/orders/{orderId}/status-events", "123456").contentType(MediaType.APPLICATION_JSON)
+                         .content("{\"status\":\"CANCELED\"}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("code").value(ErrorCode.INVALID_PARAMETER.getValue()));
+        verify(orderStatusEngine, never()).submit(any(), any());
+    }
+
+    @Test
+    void should_poll_order_ticket() throws Exception {
+        when(orderAcceptancePipeline.find("token-1"))
+            .thenReturn(Optional.of(OrderTicket.builder().token("token-1").status(OrderTicket.CREATED).order(OrderFixture.getOrder()).build()));
+
+        MockMvcBuilders.standaloneSetup(this.orderController).build()
+            .perform(get("/orders/tickets/{token}", "token-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("status").value("CREATED"))
+            .andExpect(jsonPath("$.order.flight").value("MU2151"));
+    }
+
+    @Test
+    void should_return_not_found_when_ticket_expired() throws Exception {
+        when(orderAcceptancePipeline.find("token-1")).thenReturn(Optional.empty());
+
+        MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build()
+            .perform(get("/orders/tickets/{token}", "token-1"))
+            .andExpect(status().isNotFound());
+    }
+
     //AC1
     @Test
     void should_cancel_order_successfully() throws Exception {
-        MvcResult result = MockMvcBuilders.standaloneSetup(this.orderController).build()
-                                          .perform(post("/orders/{orderId}/cancellation", "123456"))
-                                          .andExpect(status().isOk())
-                                          .andReturn();
+        Order canceled = OrderFixture.getOrder();
+        canceled.setStatus("CANCELED");
+        when(orderServiceImpl.cancelOrder(123456L)).thenReturn(canceled);
 
-        assertEquals("订单已取消", result.getResponse().getContentAsString());
+        MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build()
+            .perform(post("/orders/{orderId}/cancellation", "123456"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("status").value("CANCELED"));
+        verify(orderServiceImpl).cancelOrder(123456L);
     }
 
     //AC2
     @Test
     void should_return_not_found_when_order_not_exists() throws Exception {
-        MvcResult result = MockMvcBuilders.standaloneSetup(this.orderController).build()
-                                          .perform(post("/orders/{orderId}/cancellation", "123456"))
-                                          .andExpect(status().isNotFound())
-                                          .andReturn();
+        when(orderServiceImpl.cancelOrder(123456L)).thenThrow(new OrderNotFoundException("order 123456 not found"));
 
-        assertEquals("订单未找到", result.getResponse().getContentAsString());
+        MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build()
+            .perform(post("/orders/{orderId}/cancellation", "123456"))
+            .andExpect(status().isNotFound());
     }
 
     //AC3
     @Test
     void should_return_service_error_when_exception_occurs() throws Exception {
-        MvcResult result = MockMvcBuilders.standaloneSetup(this.orderController).build()
+        when(orderServiceImpl.cancelOrder(123456L)).thenThrow(new IllegalStateException("database down"));
+
+        MvcResult result = MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build()
                                           .perform(post("/orders/{orderId}/cancellation", "123456"))
                                           .andExpect(status().isInternalServerError())
                                           .andReturn();
 
-        assertEquals("服务器错误", result.getResponse().getContentAsString());
+        assertEquals("服务异常，请稍后再试", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void should_return_conflict_when_order_already_paid() throws Exception {
+        when(orderServiceImpl.cancelOrder(123456L)).thenThrow(new OrderStatusTransitionException("order 123456 can not change from PAID to CANCELED"));
+
+        MockMvcBuilders.standaloneSetup(this.orderController).setControllerAdvice(ExceptionHandlerAdvice.class).build()
+            .perform(post("/orders/{orderId}/cancellation", "123456"))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("code").value(ErrorCode.ILLEGAL_STATUS_TRANSITION.getValue()));
     }
 }
 
@@ -0,0 +1,34 @@
+package com.tw.flyhigh.dto;
+
+import com.tw.flyhigh.OrderFixture;
+import com.tw.flyhigh.entity.TicketOrderEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDateTime;
+
+class OrderMappingTest {
+
+    @Test
+    void should_map_every_property_the_reflective_copy_maps() {
+        TicketOrderEntity ticketOrderEntity = OrderFixture.getOrderEntity();
+        ticketOrderEntity.setId(1L);
+        ticketOrderEntity.setStatus("CREATED");
+        ticketOrderEntity.setCreatedAt(LocalDateTime.now());
+
+        Order expectedOrder = new Order();
+        BeanUtils.copyProperties(ticketOrderEntity, expectedOrder);
+        Order.Passenger expectedPassenger = new Order.Passenger();
+        BeanUtils.copyProperties(ticketOrderEntity.getPassengers().get(0), expectedPassenger);
+        OrderMessage expectedMessage = new OrderMessage();
+        BeanUtils.copyProperties(ticketOrderEntity, expectedMessage);
+        OrderMessage.Passenger expectedMessagePassenger = new OrderMessage.Passenger();
+        BeanUtils.copyProperties(ticketOrderEntity.getPassengers().get(0), expectedMessagePassenger);
+
+        Assertions.assertEquals(expectedOrder, Order.from(ticketOrderEntity));
+        Assertions.assertEquals(expectedPassenger, Order.transferPassenger(ticketOrderEntity.getPassengers()).get(0));
+        Assertions.assertEquals(expectedMessage, OrderMessage.from(ticketOrderEntity));
+        Assertions.assertEquals(expectedMessagePassenger, OrderMessage.transferPassenger(ticketOrderEntity.getPassengers()).get(0));
+    }
+}
@@ -0,0 +1,132 @@
+package com.tw.flyhigh.integration.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.tw.flyhigh.common.exception.ReserveException;
+import com.tw.flyhigh.common.exception.SeatServiceUnavailableException;
+import com.tw.flyhigh.config.PriceSeatManagerHttpClientConfig;
+import com.tw.flyhigh.config.PriceSeatManagerHttpProperties;
+import com.tw.flyhigh.config.PriceSeatManagerResilienceProperties;
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.dto.ReleaseSeatRequest;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+class AsyncPriceSeatManagerClientTest {
+
+    @RegisterExtension
+    static WireMockExtension PRICE_SEAT_MANAGER = WireMockExtension.newInstance()
+        .options(WireMockConfiguration.wireMockConfig().dynamicPort())
+        .build();
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private CloseableHttpAsyncClient httpClient;
+    private ExecutorService callbackExecutor;
+    private AsyncPriceSeatManagerClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "http://localhost:" + PRICE_SEAT_MANAGER.getPort();
+        PriceSeatManagerHttpProperties httpProperties = new PriceSeatManagerHttpProperties();
+        httpProperties.getMethods().put("reserveseat", new PriceSeatManagerHttpProperties.Timeout(null, Duration.ofMillis(200)));
+        PriceSeatManagerResilienceProperties resilienceProperties = new PriceSeatManagerResilienceProperties();
+        resilienceProperties.setCircuitWindowSize(4);
+        resilienceProperties.setCircuitMinimumCalls(4);
+        httpClient = new PriceSeatManagerHttpClientConfig(httpProperties).priceSeatManagerAsyncHttpClient(url);
+        callbackExecutor = Executors.newSingleThreadExecutor();
+        client = new AsyncPriceSeatManagerClient(httpClient, mapper, url, httpProperties, resilienceProperties, new SimpleMeterRegistry(),
+                                                 System::nanoTime, callbackExecutor);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.shutdown();
+        httpClient.close();
+    }
+
+    @Test
+    void should_reserve_seat_without_blocking_caller() throws Exception {
+        ReserveSeatRequest seatRequest = ReserveSeatRequest.builder().classType("FIRST").flight("MU2151").number(2).build();
+        PRICE_SEAT_MANAGER.stubFor(post(urlPathEqualTo("/seats/reservation")).withRequestBody(equalTo(mapper.writeValueAsString(seatRequest)))
+            .willReturn(aResponse().withFixedDelay(100).withBody("true").withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)));
+
+        CompletableFuture<Boolean> result = client.reserveSeat(seatRequest);
+
+        Assertions.assertFalse(result.isDone());
+        Assertions.assertTrue(result.join());
+    }
+
+    @Test
+    void should_release_seat_and_get_flight_detail() {
+        PRICE_SEAT_MANAGER.stubFor(post(urlPathEqualTo("/seats/release"))
+            .willReturn(aResponse().withBody("true").withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)));
+        PRICE_SEAT_MANAGER.stubFor(get(urlPathEqualTo("/seats/MU2151"))
+            .willReturn(aResponse().withBody("{\"flight\":\"MU2151\"}").withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)));
+
+        Assertions.assertTrue(client.releaseSeat(new ReleaseSeatRequest("MU2151", "FIRST", 1)).join());
+        Assertions.assertTrue(client.getFlightDetail("MU2151").join() instanceof FlightDetail);
+    }
+
+    @Test
+    void should_complete_exceptionally_when_server_fails_or_rejects() {
+        PRICE_SEAT_MANAGER.stubFor(post(urlPathEqualTo("/seats/reservation")).willReturn(aResponse().withStatus(500)));
+        PRICE_SEAT_MANAGER.stubFor(post(urlPathEqualTo("/seats/release")).willReturn(aResponse().withStatus(400)));
+
+        CompletionException serverError = Assertions.assertThrows(CompletionException.class,
+                                                                  () -> client.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 1)).join());
+        CompletionException badRequest = Assertions.assertThrows(CompletionException.class,
+                                                                 () -> client.releaseSeat(new ReleaseSeatRequest("MU2151", "FIRST", 1)).join());
+
+        Assertions.assertTrue(serverError.getCause() instanceof SeatServiceUnavailableException);
+        Assertions.assertTrue(badRequest.getCause() instanceof ReserveException);
+    }
+
+    @Test
+    void should_time_out_with_per_method_read_timeout() {
+        PRICE_SEAT_MANAGER.stubFor(post(urlPathEqualTo("/seats/reservation"))
+            .willReturn(aResponse().withFixedDelay(1000).withBody("true").withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)));
+
+        CompletionException exception = Assertions.assertThrows(CompletionException.class,
+                                                                () -> client.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 1)).join());
+
+        Assertions.assertTrue(exception.getCause() instanceof SeatServiceUnavailableException);
+    }
+
+    @Test
+    void should_reject_without_calling_server_when_circuit_is_open() {
+        PRICE_SEAT_MANAGER.stubFor(post(urlPathEqualTo("/seats/reservation")).willReturn(aResponse().withStatus(503)));
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThrows(CompletionException.class, () -> client.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 1)).join());
+        }
+
+        CompletionException rejected = Assertions.assertThrows(CompletionException.class,
+                                                               () -> client.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 1)).join());
+
+        Assertions.assertTrue(rejected.getCause().getMessage().contains("circuit is open"));
+        PRICE_SEAT_MANAGER.verify(4, postRequestedFor(urlPathEqualTo("/seats/reservation")));
+    }
+}
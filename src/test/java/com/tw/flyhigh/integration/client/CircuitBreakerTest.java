@@ -0,0 +1,73 @@
+package com.tw.flyhigh.integration.client;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CircuitBreakerTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(4, 4, 0.5, Duration.ofSeconds(10), 2, nanos::get);
+
+    @Test
+    void should_open_only_after_minimum_calls_reach_failure_rate() {
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.onFailure();
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void should_forget_failures_outside_window() {
+        circuitBreaker.onFailure();
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.onSuccess();
+        }
+        circuitBreaker.onFailure();
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void should_limit_half_open_trials_and_reopen_on_failure() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void should_close_after_half_open_trials_succeed() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        circuitBreaker.tryAcquire();
+        circuitBreaker.onSuccess();
+        circuitBreaker.tryAcquire();
+        circuitBreaker.onSuccess();
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure();
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
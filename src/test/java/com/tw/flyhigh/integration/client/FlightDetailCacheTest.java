@@ -0,0 +1,109 @@
+package com.tw.flyhigh.integration.client;
+
+import com.google.common.base.Ticker;
+import com.tw.flyhigh.config.FlightDetailCacheProperties;
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.integration.mq.CacheInvalidationBus;
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlightDetailCacheTest {
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private PriceSeatManagerClient priceSeatManagerClient;
+    private SimpleMeterRegistry meterRegistry;
+    private FlightDetailCache flightDetailCache;
+
+    @BeforeEach
+    void setUp() {
+        priceSeatManagerClient = mock(PriceSeatManagerClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        FlightDetailCacheProperties properties = new FlightDetailCacheProperties();
+        properties.setTtl(Duration.ofMinutes(10));
+        properties.setRefreshAfter(Duration.ofMinutes(8));
+        flightDetailCache = new FlightDetailCache(priceSeatManagerClient, properties, meterRegistry, mock(CacheInvalidationBus.class), ticker, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void should_load_flight_detail_once_for_concurrent_misses() throws Exception {
+        FlightDetail flightDetail = new FlightDetail();
+        CountDownLatch loading = new CountDownLatch(1);
+        when(priceSeatManagerClient.getFlightDetail("MU2151")).thenAnswer(invocation -> {
+            loading.await(1, TimeUnit.SECONDS);
+            return flightDetail;
+        });
+
+        List<CompletableFuture<FlightDetail>> results = IntStream.range(0, 8)
+                                                                 .mapToObj(i -> CompletableFuture.supplyAsync(() -> flightDetailCache.get("MU2151"), callers))
+                                                                 .collect(Collectors.toList());
+        loading.countDown();
+
+        results.forEach(result -> Assertions.assertSame(flightDetail, result.join()));
+        verify(priceSeatManagerClient, times(1)).getFlightDetail("MU2151");
+        Assertions.assertTrue(meterRegistry.get("cache.gets").tag("cache", "flight.detail").tag("result", "miss").functionCounter().count() >= 1);
+    }
+
+    @Test
+    void should_serve_stale_value_and_refresh_after_refresh_interval() {
+        FlightDetail stale = new FlightDetail();
+        FlightDetail fresh = new FlightDetail();
+        when(priceSeatManagerClient.getFlightDetail("MU2151")).thenReturn(stale, fresh);
+
+        Assertions.assertSame(stale, flightDetailCache.get("MU2151"));
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(9));
+
+        // 刷新在测试中同步执行，真实环境下调用方拿到旧值而刷新在后台完成
+        flightDetailCache.get("MU2151");
+        Assertions.assertSame(fresh, flightDetailCache.get("MU2151"));
+        verify(priceSeatManagerClient, times(2)).getFlightDetail("MU2151");
+    }
+
+    @Test
+    void should_keep_stale_value_when_refresh_fails() {
+        FlightDetail stale = new FlightDetail();
+        when(priceSeatManagerClient.getFlightDetail("MU2151")).thenReturn(stale).thenThrow(FeignException.FeignServerException.class);
+
+        flightDetailCache.get("MU2151");
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(9));
+
+        Assertions.assertSame(stale, flightDetailCache.get("MU2151"));
+    }
+
+    @Test
+    void should_propagate_remote_failure_on_miss() {
+        when(priceSeatManagerClient.getFlightDetail("MU2151")).thenThrow(FeignException.FeignServerException.class);
+
+        Assertions.assertThrows(FeignException.FeignServerException.class, () -> flightDetailCache.get("MU2151"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.tw.flyhigh.integration.client;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import feign.RetryableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@SpringBootTest(properties = {
+    "third.price-seat-manager.http.max-per-route=4",
+    "third.price-seat-manager.http.connection-request-timeout=5s",
+    "third.price-seat-manager.http.defaults.read-timeout=2s",
+    "third.price-seat-manager.http.methods.getFlightDetail.read-timeout=200ms"
+})
+class PriceSeatManagerHttpClientLoadTest {
+
+    @RegisterExtension
+    static WireMockExtension PRICE_SEAT_MANAGER = WireMockExtension.newInstance()
+        .options(WireMockConfiguration.wireMockConfig().port(8088).containerThreads(32))
+        .build();
+
+    @Autowired
+    @Qualifier(PriceSeatManagerClient.FEIGN_CLIENT)
+    private PriceSeatManagerClient priceSeatManagerClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void should_serve_concurrent_callers_from_bounded_keep_alive_pool() {
+        PRICE_SEAT_MANAGER.stubFor(post(urlPathEqualTo("/seats/reservation"))
+            .willReturn(aResponse().withBody("true").withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE).withFixedDelay(10)));
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        ReserveSeatRequest seatRequest = ReserveSeatRequest.builder().classType("FIRST").flight("MU2151").number(1).build();
+
+        List<CompletableFuture<Boolean>> results = IntStream.range(0, 400)
+                                                            .mapToObj(i -> CompletableFuture.supplyAsync(() -> priceSeatManagerClient.reserveSeat(seatRequest), callers))
+                                                            .collect(Collectors.toList());
+        results.forEach(result -> Assertions.assertTrue(result.join()));
+        callers.shutdown();
+
+        PRICE_SEAT_MANAGER.verify(400, postRequestedFor(urlPathEqualTo("/seats/reservation")));
+        Assertions.assertTrue(meterRegistry.get("httpcomponents.httpclient.pool.lease.wait").timer().count() >= 400);
+        double pooled = meterRegistry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "available").gauge().value()
+            + meterRegistry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "leased").gauge().value();
+        Assertions.assertTrue(pooled >= 1 && pooled <= 4, "keep-alive connections kept in pool: " + pooled);
+        Assertions.assertEquals(0.0, meterRegistry.get("httpcomponents.httpclient.pool.utilization").gauge().value());
+    }
+
+    @Test
+    void should_apply_read_timeout_of_called_method() {
+        PRICE_SEAT_MANAGER.stubFor(get(urlPathEqualTo("/seats/MU2151"))
+            .willReturn(aResponse().withBody("{}").withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE).withFixedDelay(500)));
+        PRICE_SEAT_MANAGER.stubFor(post(urlPathEqualTo("/seats/reservation"))
+            .willReturn(aResponse().withBody("true").withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE).withFixedDelay(500)));
+
+        Assertions.assertThrows(RetryableException.class, () -> priceSeatManagerClient.getFlightDetail("MU2151"));
+        Assertions.assertTrue(priceSeatManagerClient.reserveSeat(ReserveSeatRequest.builder().classType("FIRST").flight("MU2151").number(1).build()));
+    }
+}
@@ -0,0 +1,160 @@
+package com.tw.flyhigh.integration.client;
+
+import com.tw.flyhigh.common.exception.SeatServiceUnavailableException;
+import com.tw.flyhigh.config.PriceSeatManagerResilienceProperties;
+import com.tw.flyhigh.dto.FlightDetail;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResilientPriceSeatManagerClientTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool();
+    private final ReserveSeatRequest reserveSeatRequest = ReserveSeatRequest.builder().flight("MU2151").classType("FIRST").number(1).build();
+    private PriceSeatManagerClient delegate;
+    private PriceSeatManagerResilienceProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ResilientPriceSeatManagerClient client;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(PriceSeatManagerClient.class);
+        properties = new PriceSeatManagerResilienceProperties();
+        properties.setMinRetriesPerSecond(1);
+        properties.setRetryRatio(0.1);
+        properties.setCircuitWindowSize(4);
+        properties.setCircuitMinimumCalls(4);
+        properties.setHedgeEnabled(false);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Test
+    void should_retry_reservation_only_when_request_was_not_sent() {
+        RetryableException refused = retryable(new ConnectException("refused"));
+        when(delegate.reserveSeat(any())).thenThrow(refused).thenReturn(true);
+        client = client();
+
+        Assertions.assertTrue(client.reserveSeat(reserveSeatRequest));
+        Assertions.assertEquals(1.0, meterRegistry.get("price.seat.manager.retries").tag("method", "reserveSeat").counter().count());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        RetryableException readTimeout = retryable(new SocketTimeoutException("Read timed out"));
+        when(delegate.reserveSeat(any())).thenThrow(readTimeout);
+
+        Assertions.assertSame(readTimeout, Assertions.assertThrows(RetryableException.class, () -> client.reserveSeat(reserveSeatRequest)));
+        verify(delegate, times(3)).reserveSeat(any());
+    }
+
+    @Test
+    void should_not_retry_when_budget_is_spent() {
+        properties.setMinRetriesPerSecond(0);
+        when(delegate.getFlightDetail("MU2151")).thenThrow(FeignException.FeignServerException.class);
+        client = client();
+
+        Assertions.assertThrows(FeignException.FeignServerException.class, () -> client.getFlightDetail("MU2151"));
+        verify(delegate, times(1)).getFlightDetail("MU2151");
+    }
+
+    @Test
+    void should_fail_fast_on_reservation_while_circuit_is_open() {
+        properties.setMaxAttempts(1);
+        when(delegate.reserveSeat(any())).thenThrow(FeignException.FeignServerException.class);
+        client = client();
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThrows(FeignException.FeignServerException.class, () -> client.reserveSeat(reserveSeatRequest));
+        }
+
+        Assertions.assertThrows(SeatServiceUnavailableException.class, () -> client.reserveSeat(reserveSeatRequest));
+        verify(delegate, times(4)).reserveSeat(any());
+        Assertions.assertEquals(1.0, meterRegistry.get("price.seat.manager.circuit.state").tag("method", "reserveSeat").gauge().value());
+
+        nanos.addAndGet(properties.getCircuitOpenDuration().toNanos());
+        when(delegate.reserveSeat(any())).thenReturn(true);
+        for (int i = 0; i < properties.getCircuitHalfOpenCalls(); i++) {
+            Assertions.assertTrue(client.reserveSeat(reserveSeatRequest));
+        }
+        Assertions.assertEquals(0.0, meterRegistry.get("price.seat.manager.circuit.state").tag("method", "reserveSeat").gauge().value());
+    }
+
+    @Test
+    void should_serve_last_known_flight_detail_when_price_seat_manager_fails() {
+        properties.setMaxAttempts(1);
+        FlightDetail flightDetail = new FlightDetail();
+        when(delegate.getFlightDetail("MU2151")).thenReturn(flightDetail).thenThrow(FeignException.FeignServerException.class);
+        client = client();
+        client.getFlightDetail("MU2151");
+
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertSame(flightDetail, client.getFlightDetail("MU2151"));
+        }
+        Assertions.assertEquals(6.0, meterRegistry.get("price.seat.manager.fallbacks").counter().count());
+        // 第 4 次调用后失败率达到阈值，之后的调用不再请求下游
+        Assertions.assertEquals(3, meterRegistry.get("price.seat.manager.requests").tags("method", "getFlightDetail", "outcome", "rejected").timer().count());
+        Assertions.assertThrows(SeatServiceUnavailableException.class, () -> client.getFlightDetail("CA1234"));
+    }
+
+    @Test
+    void should_answer_from_hedged_request_when_first_is_slow() {
+        properties.setHedgeEnabled(true);
+        properties.setHedgeDelay(Duration.ofMillis(20));
+        CountDownLatch slow = new CountDownLatch(1);
+        FlightDetail fast = new FlightDetail();
+        when(delegate.getFlightDetail("MU2151")).thenAnswer(invocation -> {
+            slow.await(5, TimeUnit.SECONDS);
+            return new FlightDetail();
+        }).thenReturn(fast);
+        client = client();
+
+        Assertions.assertSame(fast, client.getFlightDetail("MU2151"));
+        slow.countDown();
+        Assertions.assertEquals(1.0, meterRegistry.get("price.seat.manager.hedges").counter().count());
+    }
+
+    @Test
+    void should_not_count_client_errors_as_failures() {
+        properties.setMaxAttempts(1);
+        when(delegate.reserveSeat(any())).thenThrow(FeignException.FeignClientException.class);
+        client = client();
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertThrows(FeignException.FeignClientException.class, () -> client.reserveSeat(reserveSeatRequest));
+        }
+
+        verify(delegate, times(6)).reserveSeat(any());
+        Assertions.assertEquals(0.0, meterRegistry.get("price.seat.manager.circuit.state").tag("method", "reserveSeat").gauge().value());
+    }
+
+    private ResilientPriceSeatManagerClient client() {
+        return new ResilientPriceSeatManagerClient(delegate, properties, meterRegistry, nanos::get, hedgeExecutor);
+    }
+
+    private RetryableException retryable(Exception cause) {
+        RetryableException exception = mock(RetryableException.class);
+        when(exception.getCause()).thenReturn(cause);
+        return exception;
+    }
+}
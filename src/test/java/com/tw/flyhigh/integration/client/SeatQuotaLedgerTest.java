@@ -0,0 +1,85 @@
+package com.tw.flyhigh.integration.client;
+
+import com.tw.flyhigh.config.SeatLeaseProperties;
+import com.tw.flyhigh.dto.ReleaseSeatRequest;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeatQuotaLedgerTest {
+    private PriceSeatManagerClient priceSeatManagerClient;
+    private SeatLeaseProperties properties;
+    private SeatQuotaLedger seatQuotaLedger;
+
+    @BeforeEach
+    void setUp() {
+        priceSeatManagerClient = mock(PriceSeatManagerClient.class);
+        properties = new SeatLeaseProperties();
+        properties.setEnabled(true);
+        properties.setBlockSize(10);
+        properties.setLowWatermark(2);
+        seatQuotaLedger = new SeatQuotaLedger(priceSeatManagerClient, properties, Runnable::run);
+    }
+
+    @Test
+    void should_serve_reservations_from_leased_block() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+
+        Assertions.assertFalse(seatQuotaLedger.tryAcquire("MU2151", "FIRST", 1));
+        Assertions.assertTrue(seatQuotaLedger.tryAcquire("MU2151", "FIRST", 3));
+        Assertions.assertTrue(seatQuotaLedger.tryAcquire("MU2151", "FIRST", 4));
+
+        Assertions.assertEquals(3, seatQuotaLedger.available("MU2151", "FIRST"));
+        verify(priceSeatManagerClient, times(1)).reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 10));
+    }
+
+    @Test
+    void should_refill_when_below_low_watermark() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+
+        seatQuotaLedger.tryAcquire("MU2151", "FIRST", 1);
+        Assertions.assertTrue(seatQuotaLedger.tryAcquire("MU2151", "FIRST", 9));
+
+        Assertions.assertEquals(11, seatQuotaLedger.available("MU2151", "FIRST"));
+        verify(priceSeatManagerClient, times(2)).reserveSeat(any());
+    }
+
+    @Test
+    void should_stop_leasing_when_seat_manager_has_no_more_seat() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(false);
+
+        Assertions.assertFalse(seatQuotaLedger.tryAcquire("MU2151", "FIRST", 1));
+        Assertions.assertFalse(seatQuotaLedger.tryAcquire("MU2151", "FIRST", 1));
+
+        verify(priceSeatManagerClient, times(1)).reserveSeat(any());
+    }
+
+    @Test
+    void should_return_unused_seats_on_release() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+        when(priceSeatManagerClient.releaseSeat(any())).thenReturn(true);
+
+        seatQuotaLedger.tryAcquire("MU2151", "FIRST", 1);
+        seatQuotaLedger.tryAcquire("MU2151", "FIRST", 2);
+        seatQuotaLedger.releaseAll();
+
+        verify(priceSeatManagerClient).releaseSeat(new ReleaseSeatRequest("MU2151", "FIRST", 8));
+        Assertions.assertEquals(0, seatQuotaLedger.available("MU2151", "FIRST"));
+    }
+
+    @Test
+    void should_not_touch_seat_manager_when_disabled() {
+        properties.setEnabled(false);
+
+        Assertions.assertFalse(seatQuotaLedger.tryAcquire("MU2151", "FIRST", 1));
+        verify(priceSeatManagerClient, never()).reserveSeat(any());
+    }
+}
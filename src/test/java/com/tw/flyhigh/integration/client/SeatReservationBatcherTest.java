@@ -0,0 +1,92 @@
+package com.tw.flyhigh.integration.client;
+
+import com.tw.flyhigh.config.SeatBatchProperties;
+import com.tw.flyhigh.dto.ReserveSeatRequest;
+import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SeatReservationBatcherTest {
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private PriceSeatManagerClient priceSeatManagerClient;
+    private SimpleMeterRegistry meterRegistry;
+    private SeatReservationBatcher seatReservationBatcher;
+
+    @BeforeEach
+    void setUp() {
+        priceSeatManagerClient = mock(PriceSeatManagerClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        SeatBatchProperties properties = new SeatBatchProperties();
+        properties.setEnabled(true);
+        properties.setWindow(Duration.ofMillis(200));
+        properties.setMaxBatchSize(5);
+        seatReservationBatcher = new SeatReservationBatcher(priceSeatManagerClient, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        seatReservationBatcher.shutdown();
+    }
+
+    @Test
+    void should_coalesce_concurrent_reservations_into_one_remote_call() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+
+        List<Boolean> results = reserveConcurrently(1, 1, 1, 1, 1);
+
+        Assertions.assertTrue(results.stream().allMatch(Boolean::booleanValue));
+        verify(priceSeatManagerClient, times(1)).reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 5));
+        Assertions.assertEquals(1, meterRegistry.get("seat.reservation.batch.size").summary().count());
+        Assertions.assertEquals(5, meterRegistry.get("seat.reservation.batch.wait").timer().count());
+    }
+
+    @Test
+    void should_fall_back_to_single_reservations_when_batch_is_refused() {
+        when(priceSeatManagerClient.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 3))).thenReturn(false);
+        when(priceSeatManagerClient.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 1))).thenReturn(true);
+        when(priceSeatManagerClient.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 2))).thenReturn(false);
+
+        List<Boolean> results = reserveConcurrently(1, 2);
+
+        Assertions.assertTrue(results.get(0));
+        Assertions.assertFalse(results.get(1));
+    }
+
+    @Test
+    void should_propagate_remote_failure_to_every_caller() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenThrow(FeignException.FeignServerException.class);
+
+        CompletableFuture<Boolean> first = reserveAsync(1);
+        CompletableFuture<Boolean> second = reserveAsync(1);
+
+        Assertions.assertThrows(Exception.class, first::join);
+        Assertions.assertThrows(Exception.class, second::join);
+    }
+
+    private List<Boolean> reserveConcurrently(int... numbers) {
+        List<CompletableFuture<Boolean>> futures = IntStream.of(numbers).mapToObj(this::reserveAsync).collect(Collectors.toList());
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    private CompletableFuture<Boolean> reserveAsync(int number) {
+        return CompletableFuture.supplyAsync(() -> seatReservationBatcher.reserve(new ReserveSeatRequest("MU2151", "FIRST", number)), callers);
+    }
+}
@@ -0,0 +1,179 @@
+package com.tw.flyhigh.integration.mq;
+
+import com.alibaba.fastjson.JSON;
+import com.rabbitmq.client.Channel;
+import com.tw.flyhigh.common.enums.QueueEnum;
+import com.tw.flyhigh.common.exception.ErrorCode;
+import com.tw.flyhigh.config.AgentOrderIngestProperties;
+import com.tw.flyhigh.dto.BatchOrderResult;
+import com.tw.flyhigh.dto.CreateOrderDto;
+import com.tw.flyhigh.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import javax.validation.Validation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static com.tw.flyhigh.OrderFixture.getCreateOrderDto;
+import static com.tw.flyhigh.OrderFixture.getCreateOrderDtoWithInvalidIdentityNumber;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AgentOrderListenerTest {
+    private OrderService orderService;
+    private Channel channel;
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private AgentOrderListener agentOrderListener;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        channel = mock(Channel.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        confirmForwarded(true);
+        meterRegistry = new SimpleMeterRegistry();
+        AgentOrderIngestProperties properties = new AgentOrderIngestProperties();
+        properties.setMaxRetries(2);
+        agentOrderListener = new AgentOrderListener(orderService, Validation.buildDefaultValidatorFactory().getValidator(), rabbitTemplate, properties,
+                                                    meterRegistry);
+    }
+
+    @Test
+    void should_create_valid_orders_in_one_batch_and_ack_each_message() throws IOException {
+        when(orderService.createOrders(any())).thenReturn(Arrays.asList(result(0, BatchOrderResult.CREATED), result(1, BatchOrderResult.FAILED)));
+
+        agentOrderListener.onMessages(Arrays.asList(message(1, JSON.toJSONString(getCreateOrderDto())),
+                                                    message(2, JSON.toJSONString(getCreateOrderDto()))), channel);
+
+        ArgumentCaptor<List<CreateOrderDto>> orders = ArgumentCaptor.forClass(List.class);
+        verify(orderService).createOrders(orders.capture());
+        Assertions.assertEquals(2, orders.getValue().size());
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        Assertions.assertEquals(1.0, meterRegistry.get("agent.order.ingested").tag("result", BatchOrderResult.CREATED).counter().count());
+        Assertions.assertEquals(1.0, meterRegistry.get("agent.order.ingested").tag("result", BatchOrderResult.FAILED).counter().count());
+        Assertions.assertEquals(2, meterRegistry.get("agent.order.ingest.lag").timer().count());
+    }
+
+    @Test
+    void should_dead_letter_malformed_and_invalid_messages() throws IOException {
+        when(orderService.createOrders(any())).thenReturn(Collections.singletonList(result(0, BatchOrderResult.CREATED)));
+
+        agentOrderListener.onMessages(Arrays.asList(message(1, "{not json"),
+                                                    message(2, JSON.toJSONString(getCreateOrderDto())),
+                                                    message(3, JSON.toJSONString(getCreateOrderDtoWithInvalidIdentityNumber()))), channel);
+
+        List<Message> deadLetters = forwarded(QueueEnum.QUEUE_AGENT_DEAD_LETTER, 2);
+        Assertions.assertEquals(1, deadLetters.get(0).getMessageProperties().getDeliveryTag());
+        Assertions.assertEquals(3, deadLetters.get(1).getMessageProperties().getDeliveryTag());
+        Assertions.assertNotNull(deadLetters.get(0).getMessageProperties().getHeader(AgentOrderListener.ERROR_HEADER));
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel).basicAck(3, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        Assertions.assertEquals(2.0, meterRegistry.get("agent.order.ingested").tag("result", "REJECTED").counter().count());
+    }
+
+    @Test
+    void should_delay_batch_through_retry_queue_when_order_service_fails() throws IOException {
+        when(orderService.createOrders(any())).thenThrow(new IllegalStateException("database down"));
+
+        agentOrderListener.onMessages(Arrays.asList(message(1, JSON.toJSONString(getCreateOrderDto())),
+                                                    message(2, JSON.toJSONString(getCreateOrderDto()))), channel);
+
+        List<Message> retries = forwarded(QueueEnum.QUEUE_AGENT_RETRY, 2);
+        Assertions.assertEquals(Integer.valueOf(1), retries.get(0).getMessageProperties().getHeader(AgentOrderListener.RETRIES_HEADER));
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void should_retry_order_failed_by_seat_service_and_ack_sold_out_order() throws IOException {
+        when(orderService.createOrders(any())).thenReturn(Arrays.asList(failed(0, ErrorCode.CRESERVE_EXCEPTION), failed(1, ErrorCode.NO_MORE_SEAT)));
+
+        agentOrderListener.onMessages(Arrays.asList(message(1, JSON.toJSONString(getCreateOrderDto())),
+                                                    message(2, JSON.toJSONString(getCreateOrderDto()))), channel);
+
+        Assertions.assertEquals(1, forwarded(QueueEnum.QUEUE_AGENT_RETRY, 1).get(0).getMessageProperties().getDeliveryTag());
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        Assertions.assertEquals(1.0, meterRegistry.get("agent.order.ingested").tag("result", "REQUEUED").counter().count());
+    }
+
+    @Test
+    void should_dead_letter_order_after_max_retries() throws IOException {
+        when(orderService.createOrders(any())).thenReturn(Collections.singletonList(failed(0, ErrorCode.CRESERVE_EXCEPTION)));
+        Message message = message(1, JSON.toJSONString(getCreateOrderDto()));
+        message.getMessageProperties().setHeader(AgentOrderListener.RETRIES_HEADER, 2);
+
+        agentOrderListener.onMessages(Collections.singletonList(message), channel);
+
+        forwarded(QueueEnum.QUEUE_AGENT_DEAD_LETTER, 1);
+        verify(rabbitTemplate, never()).send(eq(QueueEnum.QUEUE_AGENT_RETRY.getExchange()), eq(QueueEnum.QUEUE_AGENT_RETRY.getRouteKey()),
+                                             any(Message.class), any(CorrelationData.class));
+        verify(channel).basicAck(1, false);
+    }
+
+    @Test
+    void should_requeue_message_when_forward_is_not_confirmed() throws IOException {
+        confirmForwarded(false);
+
+        agentOrderListener.onMessages(Collections.singletonList(message(1, "{not json")), channel);
+
+        verify(channel).basicNack(1, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    private void confirmForwarded(boolean ack) {
+        doAnswer(invocation -> {
+            invocation.<CorrelationData>getArgument(3).getFuture().set(new CorrelationData.Confirm(ack, ack ? null : "nacked"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private List<Message> forwarded(QueueEnum target, int times) {
+        ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(times)).send(eq(target.getExchange()), eq(target.getRouteKey()), messages.capture(), any(CorrelationData.class));
+        return messages.getAllValues();
+    }
+
+    private Message message(long deliveryTag, String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setTimestamp(new Date());
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private BatchOrderResult result(int index, String status) {
+        return BatchOrderResult.builder().index(index).status(status).build();
+    }
+
+    private BatchOrderResult failed(int index, ErrorCode errorCode) {
+        return BatchOrderResult.builder().index(index).status(BatchOrderResult.FAILED).errorCode(errorCode.getValue()).build();
+    }
+}
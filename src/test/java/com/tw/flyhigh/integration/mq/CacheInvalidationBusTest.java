@@ -0,0 +1,68 @@
+package com.tw.flyhigh.integration.mq;
+
+import com.tw.flyhigh.common.enums.TopicEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CacheInvalidationBusTest {
+    private final InMemoryTopicBroker broker = new InMemoryTopicBroker();
+    private final List<String> evictedOnA = new CopyOnWriteArrayList<>();
+    private final List<String> evictedOnB = new CopyOnWriteArrayList<>();
+    private final AtomicInteger messages = new AtomicInteger();
+    private CacheInvalidationBus nodeA;
+    private CacheInvalidationBus nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = node(broker.template(), evictedOnA);
+        nodeB = node(broker.template(), evictedOnB);
+        broker.bind(TopicEnum.TOPIC_ORDER.getExchange(), TopicEnum.TOPIC_ORDER.getRouteKey(), message -> messages.incrementAndGet());
+    }
+
+    @Test
+    void should_evict_on_other_nodes_and_ignore_own_message() {
+        nodeA.publish("user", 12L);
+        nodeA.flush();
+
+        Assertions.assertEquals(1, evictedOnB.size());
+        Assertions.assertEquals("12", evictedOnB.get(0));
+        Assertions.assertTrue(evictedOnA.isEmpty());
+    }
+
+    @Test
+    void should_coalesce_burst_into_one_message() {
+        for (int i = 0; i < 100; i++) {
+            nodeA.publish("user", 12L);
+            nodeA.publish("user", 13L);
+        }
+        nodeA.flush();
+        nodeA.flush();
+
+        Assertions.assertEquals(1, messages.get());
+        Assertions.assertEquals(2, evictedOnB.size());
+        Assertions.assertTrue(evictedOnB.containsAll(Arrays.asList("12", "13")));
+    }
+
+    @Test
+    void should_ignore_order_events_on_shared_queue() {
+        nodeB.onMessage(MessageBuilder.withBody("user:12".getBytes(StandardCharsets.UTF_8)).build());
+
+        Assertions.assertTrue(evictedOnB.isEmpty());
+    }
+
+    private CacheInvalidationBus node(AmqpTemplate amqpTemplate, List<String> evicted) {
+        CacheInvalidationBus bus = new CacheInvalidationBus(amqpTemplate, true);
+        bus.subscribe("user", evicted::add);
+        broker.bind(TopicEnum.TOPIC_ORDER.getExchange(), TopicEnum.TOPIC_ORDER.getRouteKey(), bus::onMessage);
+        return bus;
+    }
+}
@@ -0,0 +1,59 @@
+package com.tw.flyhigh.integration.mq;
+
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 测试用的 topic exchange 替身：按 AMQP topic 规则匹配绑定键，同步投递给每个绑定的消费者
+ */
+class InMemoryTopicBroker {
+    private final List<Binding> bindings = new CopyOnWriteArrayList<>();
+
+    void bind(String exchange, String bindingKey, Consumer<Message> consumer) {
+        bindings.add(new Binding(exchange, toPattern(bindingKey), consumer));
+    }
+
+    AmqpTemplate template() {
+        AmqpTemplate amqpTemplate = mock(AmqpTemplate.class);
+        doAnswer(invocation -> {
+            publish(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(amqpTemplate).send(anyString(), anyString(), any(Message.class));
+        return amqpTemplate;
+    }
+
+    private void publish(String exchange, String routingKey, Message message) {
+        message.getMessageProperties().setReceivedExchange(exchange);
+        message.getMessageProperties().setReceivedRoutingKey(routingKey);
+        bindings.stream()
+                .filter(binding -> binding.exchange.equals(exchange) && binding.pattern.matcher(routingKey).matches())
+                .forEach(binding -> binding.consumer.accept(message));
+    }
+
+    private static Pattern toPattern(String bindingKey) {
+        String regex = Pattern.quote(bindingKey).replace("*", "\\E[^.]+\\Q").replace("#", "\\E.*\\Q");
+        return Pattern.compile(regex);
+    }
+
+    private static final class Binding {
+        private final String exchange;
+        private final Pattern pattern;
+        private final Consumer<Message> consumer;
+
+        Binding(String exchange, Pattern pattern, Consumer<Message> consumer) {
+            this.exchange = exchange;
+            this.pattern = pattern;
+            this.consumer = consumer;
+        }
+    }
+}
@@ -1,32 +1,150 @@
 package com.tw.flyhigh.integration.mq;
 
+import com.tw.flyhigh.config.OrderPublisherProperties;
+import com.tw.flyhigh.dto.EncodedMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.amqp.AmqpException;
-import org.springframework.amqp.core.AmqpTemplate;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.test.context.ContextConfiguration;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
-@ContextConfiguration(classes = {OrderEventSender.class})
-@ExtendWith(SpringExtension.class)
 class OrderEventSenderTest {
-    @MockBean
-    private AmqpTemplate amqpTemplate;
-
-    @Autowired
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderPublisherProperties properties;
     private OrderEventSender orderEventSender;
+    private final List<CorrelationData> pendingConfirms = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        doAnswer(invocation -> pendingConfirms.add(invocation.getArgument(3)))
+            .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new OrderPublisherProperties();
+        properties.setMaxInFlight(2);
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        properties.setConfirmTimeout(Duration.ofMillis(500));
+        orderEventSender = new OrderEventSender(rabbitTemplate, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderEventSender.shutdown();
+    }
 
     @Test
-    void testSendMessage() throws AmqpException {
-        doNothing().when(this.amqpTemplate).convertAndSend(any(), any(), any(), any());
-        this.orderEventSender.sendMessage("Msg");
-        verify(this.amqpTemplate).convertAndSend(any(), any(), any(), any());
+    void testSendMessage() {
+        CompletableFuture<Void> result = orderEventSender.sendMessage(message("Msg"));
+
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(anyString(), anyString(), sent.capture(), any(CorrelationData.class));
+        Assertions.assertEquals(OrderMessageCodec.CONTENT_TYPE_JSON, sent.getValue().getMessageProperties().getContentType());
+        Assertions.assertEquals(1.0, meterRegistry.get("order.publisher.in-flight").gauge().value());
+        Assertions.assertFalse(result.isDone());
+
+        confirm(0, true);
+
+        Assertions.assertTrue(result.isDone());
+        Assertions.assertFalse(result.isCompletedExceptionally());
+        Assertions.assertEquals(0.0, meterRegistry.get("order.publisher.in-flight").gauge().value());
+        Assertions.assertEquals(1, meterRegistry.get("order.publisher.confirm.latency").timer().count());
+    }
+
+    @Test
+    void should_republish_nacked_message_until_acked() throws InterruptedException {
+        CompletableFuture<Void> result = orderEventSender.sendMessage(message("Msg"));
+
+        confirm(0, false);
+        awaitPublishes(2);
+        confirm(1, true);
+
+        result.join();
+        verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        Assertions.assertEquals(1.0, meterRegistry.get("order.publisher.retries").counter().count());
+    }
+
+    @Test
+    void should_fail_batch_when_message_is_returned_on_every_attempt() throws InterruptedException {
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() -> orderEventSender.sendMessages(Arrays.asList(message("a"), message("b"))));
+        awaitPublishes(2);
+        confirm(0, true);
+        for (int attempt = 1; attempt <= properties.getMaxAttempts(); attempt++) {
+            awaitPublishes(attempt + 1);
+            CorrelationData returned = pendingConfirms.get(attempt);
+            returned.setReturnedMessage(new Message(new byte[0], new MessageProperties()));
+            returned.getFuture().set(new CorrelationData.Confirm(true, null));
+        }
+
+        Assertions.assertThrows(Exception.class, batch::join);
+        Assertions.assertEquals(1.0, meterRegistry.get("order.publisher.failures").counter().count());
     }
-}
 
+    @Test
+    void should_reject_send_when_window_stays_full() {
+        orderEventSender.sendMessage(message("a"));
+        orderEventSender.sendMessage(message("b"));
+
+        Assertions.assertThrows(AmqpException.class, () -> orderEventSender.sendMessage(message("c")));
+    }
+
+    @Test
+    void should_release_window_when_confirm_never_arrives() throws InterruptedException {
+        properties.setMaxAttempts(2);
+        properties.setConfirmTimeout(Duration.ofMillis(100));
+        CompletableFuture<Void> result = orderEventSender.sendMessage(message("Msg"));
+
+        awaitPublishes(2);
+        Assertions.assertThrows(Exception.class, result::join);
+        Assertions.assertEquals(0.0, meterRegistry.get("order.publisher.in-flight").gauge().value());
+        Assertions.assertEquals(1.0, meterRegistry.get("order.publisher.failures").counter().count());
+        orderEventSender.sendMessage(message("a"));
+        orderEventSender.sendMessage(message("b"));
+    }
+
+    @Test
+    void should_give_up_unconfirmed_messages_when_batch_times_out() {
+        properties.setMaxAttempts(5);
+        properties.setConfirmTimeout(Duration.ofMillis(100));
+
+        Assertions.assertThrows(AmqpException.class, () -> orderEventSender.sendMessages(Arrays.asList(message("a"), message("b"))));
+
+        Assertions.assertEquals(0.0, meterRegistry.get("order.publisher.in-flight").gauge().value());
+    }
+
+    private void confirm(int index, boolean ack) {
+        pendingConfirms.get(index).getFuture().set(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+    }
+
+    private void awaitPublishes(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (pendingConfirms.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assertions.assertTrue(pendingConfirms.size() >= count);
+    }
+
+    private EncodedMessage message(String payload) {
+        return new EncodedMessage(OrderMessageCodec.CONTENT_TYPE_JSON, payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package com.tw.flyhigh.integration.mq;
+
+import com.tw.flyhigh.OrderFixture;
+import com.tw.flyhigh.dto.EncodedMessage;
+import com.tw.flyhigh.dto.OrderMessage;
+import com.tw.flyhigh.entity.TicketOrderEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+class OrderMessageCodecTest {
+
+    @Test
+    void should_round_trip_binary_message_smaller_than_json() {
+        OrderMessage orderMessage = orderMessage();
+
+        EncodedMessage binary = new OrderMessageCodec("binary").encode(orderMessage);
+        EncodedMessage json = new OrderMessageCodec("json").encode(orderMessage);
+
+        Assertions.assertEquals(OrderMessageCodec.CONTENT_TYPE_BINARY, binary.getContentType());
+        Assertions.assertEquals(orderMessage, OrderMessageCodec.decode(binary));
+        Assertions.assertTrue(binary.getBody().length < json.getBody().length / 2);
+    }
+
+    @Test
+    void should_keep_null_fields_and_null_passenger_list() {
+        OrderMessage orderMessage = new OrderMessage();
+        orderMessage.setId(-1L);
+        orderMessage.setFlight("");
+
+        Assertions.assertEquals(orderMessage, OrderMessageCodec.decodeBinary(OrderMessageCodec.encodeBinary(orderMessage)));
+    }
+
+    @Test
+    void should_decode_json_for_json_or_missing_content_type() {
+        OrderMessage orderMessage = orderMessage();
+        orderMessage.setCreatedAt(LocalDateTime.of(2022, 3, 10, 8, 30, 15));
+        byte[] json = new OrderMessageCodec("json").encode(orderMessage).getBody();
+
+        Assertions.assertEquals(orderMessage, OrderMessageCodec.decode(new EncodedMessage(OrderMessageCodec.CONTENT_TYPE_JSON, json)));
+        Assertions.assertEquals(orderMessage, OrderMessageCodec.decode(new EncodedMessage(null, json)));
+    }
+
+    @Test
+    void should_reject_unknown_version_and_truncated_body() {
+        byte[] body = OrderMessageCodec.encodeBinary(orderMessage());
+        byte[] future = body.clone();
+        future[0] = OrderMessageCodec.VERSION + 1;
+
+        Assertions.assertThrows(MessageConversionException.class, () -> OrderMessageCodec.decodeBinary(future));
+        Assertions.assertThrows(MessageConversionException.class,
+                                () -> OrderMessageCodec.decodeBinary(Arrays.copyOf(body, body.length - 3)));
+    }
+
+    private OrderMessage orderMessage() {
+        TicketOrderEntity ticketOrderEntity = OrderFixture.getOrderEntity();
+        ticketOrderEntity.setId(10001L);
+        ticketOrderEntity.setCreatedAt(LocalDateTime.of(2022, 3, 10, 8, 30, 15, 123456789));
+        OrderMessage orderMessage = OrderMessage.from(ticketOrderEntity);
+        orderMessage.setPassengerList(OrderMessage.transferPassenger(ticketOrderEntity.getPassengers()));
+        orderMessage.setStatus("CREATED");
+        return orderMessage;
+    }
+}
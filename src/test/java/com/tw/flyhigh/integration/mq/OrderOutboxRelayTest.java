@@ -0,0 +1,96 @@
+package com.tw.flyhigh.integration.mq;
+
+import com.tw.flyhigh.dto.EncodedMessage;
+import com.tw.flyhigh.entity.OrderOutboxEntity;
+import com.tw.flyhigh.repository.OrderOutboxRepository;
+import com.tw.flyhigh.repository.RelayLeaseRepository;
+import com.tw.flyhigh.service.MessageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderOutboxRelayTest {
+    private OrderOutboxRepository orderOutboxRepository;
+    private RelayLeaseRepository relayLeaseRepository;
+    private MessageService messageService;
+    private OrderOutboxRelay orderOutboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        orderOutboxRepository = mock(OrderOutboxRepository.class);
+        relayLeaseRepository = mock(RelayLeaseRepository.class);
+        when(relayLeaseRepository.tryAcquire(eq(OrderOutboxRelay.LEASE_NAME), anyString(), any())).thenReturn(true);
+        messageService = mock(MessageService.class);
+        orderOutboxRelay = new OrderOutboxRelay(orderOutboxRepository, relayLeaseRepository, messageService, 2, 30000);
+    }
+
+    @Test
+    void should_drain_outbox_in_batches_and_delete_sent_events() {
+        List<OrderOutboxEntity> first = Arrays.asList(outbox(1L, "a"), outbox(2L, "b"));
+        List<OrderOutboxEntity> second = Collections.singletonList(outbox(3L, "c"));
+        when(orderOutboxRepository.findAllByOrderByIdAsc(any())).thenReturn(first, second);
+
+        orderOutboxRelay.relay();
+
+        verify(messageService).sendMsgs(Arrays.asList(message("a"), message("b")));
+        verify(messageService).sendMsgs(Collections.singletonList(message("c")));
+        verify(orderOutboxRepository).deleteInBatch(first);
+        verify(orderOutboxRepository).deleteInBatch(second);
+    }
+
+    @Test
+    void should_keep_events_in_outbox_when_broker_fails() {
+        List<OrderOutboxEntity> batch = Collections.singletonList(outbox(1L, "a"));
+        when(orderOutboxRepository.findAllByOrderByIdAsc(any())).thenReturn(batch);
+        doThrow(new RuntimeException("broker down")).when(messageService).sendMsgs(any());
+
+        orderOutboxRelay.relay();
+
+        verify(orderOutboxRepository, never()).deleteInBatch(any());
+    }
+
+    @Test
+    void should_not_relay_when_another_instance_holds_the_lease() {
+        when(relayLeaseRepository.tryAcquire(eq(OrderOutboxRelay.LEASE_NAME), anyString(), any())).thenReturn(false);
+
+        orderOutboxRelay.relay();
+
+        verify(orderOutboxRepository, never()).findAllByOrderByIdAsc(any());
+        verify(messageService, never()).sendMsgs(any());
+    }
+
+    @Test
+    void should_stop_relaying_when_lease_is_lost_between_batches() {
+        when(relayLeaseRepository.tryAcquire(eq(OrderOutboxRelay.LEASE_NAME), anyString(), any())).thenReturn(true, false);
+        List<OrderOutboxEntity> first = Arrays.asList(outbox(1L, "a"), outbox(2L, "b"));
+        when(orderOutboxRepository.findAllByOrderByIdAsc(any())).thenReturn(first);
+
+        orderOutboxRelay.relay();
+
+        verify(messageService, times(1)).sendMsgs(any());
+        verify(orderOutboxRepository, times(1)).findAllByOrderByIdAsc(any());
+    }
+
+    private OrderOutboxEntity outbox(Long id, String payload) {
+        return OrderOutboxEntity.builder().id(id).orderId(id).contentType(OrderMessageCodec.CONTENT_TYPE_JSON)
+                                .payload(payload.getBytes(StandardCharsets.UTF_8)).build();
+    }
+
+    private EncodedMessage message(String payload) {
+        return new EncodedMessage(OrderMessageCodec.CONTENT_TYPE_JSON, payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.tw.flyhigh.repository;
+
+import com.tw.flyhigh.entity.PassengerEntity;
+import com.tw.flyhigh.entity.TicketOrderEntity;
+import com.tw.flyhigh.entity.TicketOrderEventEntity;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * 统计保存订单时与数据库的往返次数：主键按段分配后，同一次 flush 中的 insert 会按表合并成 JDBC 批。
+ * 关闭批处理时每行一次 insert，与自增主键（每次 insert 后立即取回主键）的往返次数相同，作为对比基线
+ */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import(StatementCounter.Config.class)
+class OrderInsertRoundTripTest {
+    private static final int ORDERS = 10;
+    private static final int PASSENGERS_PER_ORDER = 3;
+    /**
+     * 与测试配置中的 hibernate.jdbc.batch_size 一致
+     */
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private TicketOrderRepository orderRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    public void should_batch_order_inserts_into_one_round_trip_per_table() {
+        // 先保存一单，让三张表都分配好主键段（每段 100 个），之后两轮共 20 单不再需要查询 id_block
+        orderRepository.save(order(0));
+        entityManager.flush();
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+
+        session.setJdbcBatchSize(1);
+        int unbatched = saveOrders(1);
+        session.setJdbcBatchSize(null);
+        int batched = saveOrders(ORDERS + 1);
+
+        Assertions.assertEquals(ORDERS * (1 + PASSENGERS_PER_ORDER + 1), unbatched);
+        Assertions.assertEquals(batches(ORDERS) + batches(ORDERS * PASSENGERS_PER_ORDER) + batches(ORDERS), batched);
+        Assertions.assertEquals(2 * ORDERS + 1, orderRepository.count());
+    }
+
+    private int saveOrders(int firstIndex) {
+        statementCounter.reset();
+        orderRepository.saveAll(IntStream.range(firstIndex, firstIndex + ORDERS).mapToObj(this::order).collect(Collectors.toList()));
+        entityManager.flush();
+        return statementCounter.get();
+    }
+
+    private static int batches(int rows) {
+        return (rows + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+
+    private TicketOrderEntity order(int index) {
+        TicketOrderEntity order = TicketOrderEntity.builder()
+            .contactMobile("13888888888")
+            .contactName("张三")
+            .classType("FIRST")
+            .flight("MU2151")
+            .userId((long) index)
+            .build();
+        order.setPassengers(IntStream.range(0, PASSENGERS_PER_ORDER)
+                                     .mapToObj(i -> PassengerEntity.builder()
+                                                                   .name("李四" + i)
+                                                                   .ageType("成人")
+                                                                   .identificationNumber("61050220000101543" + i)
+                                                                   .order(order)
+                                                                   .build())
+                                     .collect(Collectors.toList()));
+        order.setEvents(newArrayList(TicketOrderEventEntity.builder().order(order).status("CREATED").build()));
+        return order;
+    }
+}
@@ -0,0 +1,90 @@
+package com.tw.flyhigh.repository;
+
+import com.tw.flyhigh.common.util.OrderCursor;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
+import com.tw.flyhigh.entity.PassengerEntity;
+import com.tw.flyhigh.entity.TicketOrderEntity;
+import com.tw.flyhigh.entity.TicketOrderEventEntity;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import({OrderQueryRepository.class, StatementCounter.Config.class})
+class OrderQueryRepositoryTest {
+    @Autowired
+    private TicketOrderRepository orderRepository;
+    @Autowired
+    private OrderQueryRepository orderQueryRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            TicketOrderEntity order = TicketOrderEntity.builder()
+                .contactMobile("13888888888")
+                .contactName("张三")
+                .classType("FIRST")
+                .flight("MU215" + i)
+                .userId(456L)
+                .status("CREATED")
+                .build();
+            order.setPassengers(newArrayList(
+                PassengerEntity.builder().name("李四").ageType("老人").identificationNumber("610502200001015432").order(order).build(),
+                PassengerEntity.builder().name("王五").ageType("成人").identificationNumber("610502200001015433").order(order).build()));
+            order.setEvents(newArrayList(TicketOrderEventEntity.builder().status("CREATED").order(order).build()));
+            orderRepository.save(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statementCounter.reset();
+    }
+
+    @Test
+    public void should_load_page_with_passengers_and_events_in_three_statements() {
+        OrderPage page = orderQueryRepository.findPage(456L, null, 2);
+
+        Assertions.assertEquals(3, statementCounter.get());
+        Assertions.assertEquals(2, page.getOrders().size());
+        Assertions.assertNotNull(page.getNextCursor());
+        Order first = page.getOrders().get(0);
+        Assertions.assertEquals("MU2152", first.getFlight());
+        Assertions.assertEquals(2, first.getPassengerList().size());
+        Assertions.assertEquals("李四", first.getPassengerList().get(0).getName());
+        Assertions.assertEquals("CREATED", first.getOrderEventList().get(0).getStatus());
+    }
+
+    @Test
+    public void should_load_next_page_after_cursor() {
+        OrderPage firstPage = orderQueryRepository.findPage(456L, null, 2);
+        statementCounter.reset();
+
+        OrderPage secondPage = orderQueryRepository.findPage(456L, OrderCursor.decode(firstPage.getNextCursor()), 2);
+
+        Assertions.assertEquals(3, statementCounter.get());
+        Assertions.assertEquals(1, secondPage.getOrders().size());
+        Assertions.assertEquals("MU2150", secondPage.getOrders().get(0).getFlight());
+        Assertions.assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void should_run_single_statement_for_user_without_orders() {
+        OrderPage page = orderQueryRepository.findPage(789L, null, 20);
+
+        Assertions.assertEquals(1, statementCounter.get());
+        Assertions.assertTrue(page.getOrders().isEmpty());
+    }
+}
@@ -0,0 +1,36 @@
+package com.tw.flyhigh.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import(RelayLeaseRepository.class)
+class RelayLeaseRepositoryTest {
+    private static final String LEASE = "order-outbox";
+
+    @Autowired
+    private RelayLeaseRepository relayLeaseRepository;
+
+    @Test
+    public void should_grant_lease_to_one_owner_until_it_expires() {
+        Assertions.assertTrue(relayLeaseRepository.tryAcquire(LEASE, "node-a", Duration.ofSeconds(30)));
+        Assertions.assertFalse(relayLeaseRepository.tryAcquire(LEASE, "node-b", Duration.ofSeconds(30)));
+        Assertions.assertTrue(relayLeaseRepository.tryAcquire(LEASE, "node-a", Duration.ofSeconds(30)));
+    }
+
+    @Test
+    public void should_hand_over_expired_lease() {
+        Assertions.assertTrue(relayLeaseRepository.tryAcquire(LEASE, "node-a", Duration.ofSeconds(-1)));
+
+        Assertions.assertTrue(relayLeaseRepository.tryAcquire(LEASE, "node-b", Duration.ofSeconds(30)));
+        Assertions.assertFalse(relayLeaseRepository.tryAcquire(LEASE, "node-a", Duration.ofSeconds(30)));
+    }
+}
@@ -1,6 +1,8 @@
 package com.tw.flyhigh.service.impl;
 
+import com.tw.flyhigh.dto.EncodedMessage;
 import com.tw.flyhigh.integration.mq.OrderEventSender;
+import com.tw.flyhigh.integration.mq.OrderMessageCodec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,9 +10,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ContextConfiguration(classes = {AmqpMessageServiceImpl.class})
 @ExtendWith(SpringExtension.class)
@@ -23,9 +29,19 @@ class AmqpMessageServiceImplTest {
 
     @Test
     void testSendMsg() {
-        doNothing().when(this.orderEventSender).sendMessage(any());
-        this.amqpMessageServiceImpl.sendMsg("Event Json");
+        when(this.orderEventSender.sendMessage(any())).thenReturn(CompletableFuture.completedFuture(null));
+        this.amqpMessageServiceImpl.sendMsg(message("Event Json"));
         verify(this.orderEventSender).sendMessage(any());
     }
+
+    @Test
+    void testSendMsgs() {
+        this.amqpMessageServiceImpl.sendMsgs(Arrays.asList(message("Event Json 1"), message("Event Json 2")));
+        verify(this.orderEventSender).sendMessages(Arrays.asList(message("Event Json 1"), message("Event Json 2")));
+    }
+
+    private EncodedMessage message(String payload) {
+        return new EncodedMessage(OrderMessageCodec.CONTENT_TYPE_JSON, payload.getBytes(StandardCharsets.UTF_8));
+    }
 }
 
@@ -0,0 +1,106 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.OrderFixture;
+import com.tw.flyhigh.common.exception.NoMoreSeatException;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.config.OrderAcceptanceProperties;
+import com.tw.flyhigh.dto.OrderTicket;
+import com.tw.flyhigh.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderAcceptancePipelineTest {
+    private OrderService orderService;
+    private OrderAcceptancePipeline orderAcceptancePipeline;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        OrderAcceptanceProperties properties = new OrderAcceptanceProperties();
+        properties.setEnabled(true);
+        properties.setWorkers(1);
+        properties.setQueueCapacity(1);
+        orderAcceptancePipeline = new OrderAcceptancePipeline(orderService, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        orderAcceptancePipeline.shutdown();
+    }
+
+    @Test
+    void should_create_order_in_background_and_expose_result_by_token() {
+        when(orderService.createOrder(any(), any())).thenReturn(OrderFixture.getOrder());
+
+        OrderTicket accepted = orderAcceptancePipeline.submit(OrderFixture.getCreateOrderDto(), null);
+        Assertions.assertEquals(OrderTicket.PENDING, accepted.getStatus());
+
+        OrderTicket result = orderAcceptancePipeline.await(accepted.getToken(), 5_000).get().join();
+        Assertions.assertEquals(OrderTicket.CREATED, result.getStatus());
+        Assertions.assertEquals(OrderFixture.getOrder(), result.getOrder());
+        Assertions.assertEquals(OrderTicket.CREATED, orderAcceptancePipeline.find(accepted.getToken()).get().getStatus());
+    }
+
+    @Test
+    void should_record_failure_when_no_more_seat() {
+        when(orderService.createOrder(any(), any())).thenThrow(new NoMoreSeatException());
+
+        OrderTicket accepted = orderAcceptancePipeline.submit(OrderFixture.getCreateOrderDto(), null);
+
+        OrderTicket result = orderAcceptancePipeline.await(accepted.getToken(), 5_000).get().join();
+        Assertions.assertEquals(OrderTicket.FAILED, result.getStatus());
+        Assertions.assertEquals("机票已售罄", result.getMessage());
+    }
+
+    @Test
+    void should_reject_when_pipeline_is_full() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.createOrder(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            return OrderFixture.getOrder();
+        });
+
+        orderAcceptancePipeline.submit(OrderFixture.getCreateOrderDto(), null);
+        orderAcceptancePipeline.submit(OrderFixture.getCreateOrderDto(), null);
+        Assertions.assertThrows(OrderOverloadException.class, () -> orderAcceptancePipeline.submit(OrderFixture.getCreateOrderDto(), null));
+        release.countDown();
+    }
+
+    @Test
+    void should_keep_in_flight_tickets_beyond_max_tickets() throws InterruptedException {
+        OrderAcceptanceProperties properties = new OrderAcceptanceProperties();
+        properties.setEnabled(true);
+        properties.setWorkers(2);
+        properties.setMaxTickets(1);
+        OrderAcceptancePipeline pipeline = new OrderAcceptancePipeline(orderService, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.createOrder(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            return OrderFixture.getOrder();
+        });
+
+        OrderTicket first = pipeline.submit(OrderFixture.getCreateOrderDto(), null);
+        OrderTicket second = pipeline.submit(OrderFixture.getCreateOrderDto(), null);
+        OrderTicket third = pipeline.submit(OrderFixture.getCreateOrderDto(), null);
+
+        Assertions.assertEquals(OrderTicket.PENDING, pipeline.find(first.getToken()).get().getStatus());
+        Assertions.assertEquals(OrderTicket.PENDING, pipeline.find(second.getToken()).get().getStatus());
+        Assertions.assertEquals(OrderTicket.PENDING, pipeline.find(third.getToken()).get().getStatus());
+        release.countDown();
+        Assertions.assertEquals(OrderTicket.CREATED, pipeline.await(third.getToken(), 5_000).get().join().getStatus());
+        pipeline.shutdown();
+    }
+
+    @Test
+    void should_return_empty_for_unknown_token() {
+        Assertions.assertFalse(orderAcceptancePipeline.find("unknown").isPresent());
+    }
+}
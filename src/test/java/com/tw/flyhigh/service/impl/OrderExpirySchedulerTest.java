@@ -0,0 +1,152 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.common.exception.OrderStatusTransitionException;
+import com.tw.flyhigh.config.OrderExpiryProperties;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.ReleaseSeatRequest;
+import com.tw.flyhigh.integration.client.PriceSeatManagerClient;
+import com.tw.flyhigh.repository.PendingOrder;
+import com.tw.flyhigh.repository.TicketOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.tw.flyhigh.OrderFixture.getOrder;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderExpirySchedulerTest {
+    private OrderExpiryWheel orderExpiryWheel;
+    private OrderStatusEngine orderStatusEngine;
+    private PriceSeatManagerClient priceSeatManagerClient;
+    private TicketOrderRepository orderRepository;
+    private OrderExpiryProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderExpiryScheduler orderExpiryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OrderExpiryProperties();
+        properties.setEnabled(true);
+        properties.setRebuildPageSize(2);
+        properties.setRetryDelay(Duration.ofSeconds(30));
+        orderExpiryWheel = mock(OrderExpiryWheel.class);
+        when(orderExpiryWheel.isEnabled()).thenReturn(true);
+        orderStatusEngine = mock(OrderStatusEngine.class);
+        priceSeatManagerClient = mock(PriceSeatManagerClient.class);
+        orderRepository = mock(TicketOrderRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        orderExpiryScheduler = new OrderExpiryScheduler(orderExpiryWheel, orderStatusEngine, priceSeatManagerClient, orderRepository, properties, meterRegistry,
+                                                        1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderExpiryScheduler.shutdown();
+    }
+
+    @Test
+    void should_keep_ticking_after_a_failed_tick() {
+        when(orderExpiryWheel.advance(anyLong())).thenThrow(new IllegalStateException("wheel broken"));
+
+        Assertions.assertDoesNotThrow(orderExpiryScheduler::tick);
+    }
+
+    @Test
+    void should_cancel_expired_orders_and_release_seats_once_per_flight() {
+        Order other = getOrder();
+        other.setFlight("CA1234");
+        when(orderStatusEngine.submit(1L, OrderStatusEnum.CANCELED)).thenReturn(CompletableFuture.completedFuture(getOrder()));
+        when(orderStatusEngine.submit(2L, OrderStatusEnum.CANCELED)).thenReturn(CompletableFuture.completedFuture(getOrder()));
+        when(orderStatusEngine.submit(3L, OrderStatusEnum.CANCELED)).thenReturn(CompletableFuture.completedFuture(other));
+        when(priceSeatManagerClient.releaseSeat(any())).thenReturn(true);
+
+        orderExpiryScheduler.cancelBatch(Arrays.asList(1L, 2L, 3L));
+
+        ArgumentCaptor<ReleaseSeatRequest> releases = ArgumentCaptor.forClass(ReleaseSeatRequest.class);
+        verify(priceSeatManagerClient, times(2)).releaseSeat(releases.capture());
+        Assertions.assertEquals(new ReleaseSeatRequest("MU2151", "FIRST", 2), releases.getAllValues().get(0));
+        Assertions.assertEquals(new ReleaseSeatRequest("CA1234", "FIRST", 1), releases.getAllValues().get(1));
+        Assertions.assertEquals(3.0, meterRegistry.get("order.expiry.canceled").counter().count());
+    }
+
+    @Test
+    void should_skip_orders_paid_before_deadline() {
+        CompletableFuture<Order> paid = new CompletableFuture<>();
+        paid.completeExceptionally(new OrderStatusTransitionException("order 1 can not change from PAID to CANCELED"));
+        when(orderStatusEngine.submit(1L, OrderStatusEnum.CANCELED)).thenReturn(paid);
+
+        orderExpiryScheduler.cancelBatch(Collections.singletonList(1L));
+
+        verify(priceSeatManagerClient, never()).releaseSeat(any());
+        verify(orderExpiryWheel, never()).add(anyLong(), anyLong());
+    }
+
+    @Test
+    void should_retry_later_when_status_engine_is_overloaded() {
+        when(orderStatusEngine.submit(1L, OrderStatusEnum.CANCELED)).thenThrow(new OrderOverloadException("order status queue is full"));
+
+        orderExpiryScheduler.cancelBatch(Collections.singletonList(1L));
+
+        verify(orderExpiryWheel).add(eq(1L), anyLong());
+        verify(priceSeatManagerClient, never()).releaseSeat(any());
+    }
+
+    @Test
+    void should_count_release_failure() {
+        when(orderStatusEngine.submit(1L, OrderStatusEnum.CANCELED)).thenReturn(CompletableFuture.completedFuture(getOrder()));
+        when(priceSeatManagerClient.releaseSeat(any())).thenThrow(new IllegalStateException("seat manager down"));
+
+        orderExpiryScheduler.cancelBatch(Collections.singletonList(1L));
+
+        Assertions.assertEquals(1.0, meterRegistry.get("order.expiry.release.failures").counter().count());
+    }
+
+    @Test
+    void should_rebuild_wheel_from_created_orders_page_by_page() {
+        LocalDateTime createdAt = LocalDateTime.of(2022, 3, 10, 8, 0);
+        when(orderRepository.findByStatusAndIdGreaterThanOrderByIdAsc(eq("CREATED"), eq(0L), any()))
+            .thenReturn(Arrays.asList(pending(1L, createdAt), pending(5L, createdAt)));
+        when(orderRepository.findByStatusAndIdGreaterThanOrderByIdAsc(eq("CREATED"), eq(5L), any()))
+            .thenReturn(Collections.singletonList(pending(9L, createdAt)));
+
+        orderExpiryScheduler.rebuild();
+
+        verify(orderExpiryWheel).schedule(1L, createdAt);
+        verify(orderExpiryWheel).schedule(5L, createdAt);
+        verify(orderExpiryWheel).schedule(9L, createdAt);
+        verify(orderRepository, times(2)).findByStatusAndIdGreaterThanOrderByIdAsc(any(), any(), any());
+    }
+
+    private PendingOrder pending(Long id, LocalDateTime createdAt) {
+        return new PendingOrder() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+}
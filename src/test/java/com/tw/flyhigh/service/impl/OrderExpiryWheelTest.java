@@ -0,0 +1,73 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.config.OrderExpiryProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+class OrderExpiryWheelTest {
+    private OrderExpiryWheel orderExpiryWheel;
+
+    @BeforeEach
+    void setUp() {
+        OrderExpiryProperties properties = new OrderExpiryProperties();
+        properties.setEnabled(true);
+        properties.setTtl(Duration.ofSeconds(30));
+        properties.setWheelSize(8);
+        orderExpiryWheel = new OrderExpiryWheel(properties, 1000, 0);
+    }
+
+    @Test
+    void should_return_orders_whose_deadline_passed() {
+        orderExpiryWheel.add(1L, 2_000);
+        orderExpiryWheel.add(2L, 2_500);
+        orderExpiryWheel.add(3L, 5_000);
+
+        Assertions.assertEquals(Collections.emptyList(), orderExpiryWheel.advance(1_999));
+        Assertions.assertEquals(Collections.singletonList(1L), orderExpiryWheel.advance(2_100));
+        Assertions.assertEquals(Collections.singletonList(2L), orderExpiryWheel.advance(3_000));
+        Assertions.assertEquals(1, orderExpiryWheel.size());
+    }
+
+    @Test
+    void should_keep_deadline_beyond_one_round_until_its_round() {
+        // 槽数为 8，13 秒后到期的订单和 5 秒后到期的订单在同一个槽
+        orderExpiryWheel.add(1L, 13_000);
+        orderExpiryWheel.add(2L, 5_000);
+
+        Assertions.assertEquals(Collections.singletonList(2L), orderExpiryWheel.advance(5_000));
+        Assertions.assertEquals(Collections.emptyList(), orderExpiryWheel.advance(12_000));
+        Assertions.assertEquals(Collections.singletonList(1L), orderExpiryWheel.advance(13_000));
+    }
+
+    @Test
+    void should_expire_everything_due_when_advanced_past_a_full_round() {
+        orderExpiryWheel.add(1L, 1_000);
+        orderExpiryWheel.add(2L, 9_000);
+        orderExpiryWheel.add(3L, 40_000);
+
+        Assertions.assertEquals(Arrays.asList(1L, 2L), orderExpiryWheel.advance(20_000));
+        Assertions.assertEquals(1, orderExpiryWheel.size());
+    }
+
+    @Test
+    void should_put_overdue_order_into_next_tick() {
+        orderExpiryWheel.advance(10_000);
+        orderExpiryWheel.add(1L, 3_000);
+
+        Assertions.assertEquals(Collections.singletonList(1L), orderExpiryWheel.advance(11_000));
+    }
+
+    @Test
+    void should_ignore_schedule_when_disabled() {
+        OrderExpiryWheel disabled = new OrderExpiryWheel(new OrderExpiryProperties(), 1000, 0);
+
+        disabled.schedule(1L, null);
+
+        Assertions.assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,109 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.OrderFixture;
+import com.tw.flyhigh.common.exception.IdempotencyKeyReusedException;
+import com.tw.flyhigh.common.exception.NoMoreSeatException;
+import com.tw.flyhigh.config.IdempotencyProperties;
+import com.tw.flyhigh.dto.CreateOrderDto;
+import com.tw.flyhigh.dto.Order;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class OrderIdempotencyStoreTest {
+    private final OrderIdempotencyStore orderIdempotencyStore = new OrderIdempotencyStore(new IdempotencyProperties());
+
+    @Test
+    void should_return_first_result_for_repeated_key() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Order first = orderIdempotencyStore.execute(12L, "key-1", "hash-1", () -> {
+            calls.incrementAndGet();
+            return OrderFixture.getOrder();
+        });
+        Order second = orderIdempotencyStore.execute(12L, "key-1", "hash-1", () -> {
+            calls.incrementAndGet();
+            return OrderFixture.getOrder();
+        });
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void should_wait_for_in_flight_request_with_same_key() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        Order order = OrderFixture.getOrder();
+
+        CompletableFuture<Order> first = CompletableFuture.supplyAsync(() -> orderIdempotencyStore.execute(12L, "key-1", "hash-1", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return order;
+        }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Order> duplicate = CompletableFuture.supplyAsync(() -> orderIdempotencyStore.execute(12L, "key-1", "hash-1", () -> {
+            calls.incrementAndGet();
+            return OrderFixture.getOrder();
+        }));
+        release.countDown();
+
+        Assertions.assertSame(order, first.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(order, duplicate.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void should_not_remember_failed_attempt() {
+        Assertions.assertThrows(NoMoreSeatException.class, () -> orderIdempotencyStore.execute(12L, "key-1", "hash-1", () -> {
+            throw new NoMoreSeatException();
+        }));
+
+        Order retried = orderIdempotencyStore.execute(12L, "key-1", "hash-1", OrderFixture::getOrder);
+        Assertions.assertEquals(OrderFixture.getOrder(), retried);
+    }
+
+    @Test
+    void should_scope_key_by_user() {
+        orderIdempotencyStore.execute(12L, "key-1", "hash-1", OrderFixture::getOrder);
+        AtomicInteger calls = new AtomicInteger();
+
+        orderIdempotencyStore.execute(13L, "key-1", "hash-1", () -> {
+            calls.incrementAndGet();
+            return OrderFixture.getOrder();
+        });
+
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void should_reject_reused_key_with_different_request() {
+        orderIdempotencyStore.execute(12L, "key-1", "hash-1", OrderFixture::getOrder);
+
+        Assertions.assertThrows(IdempotencyKeyReusedException.class,
+                                () -> orderIdempotencyStore.execute(12L, "key-1", "hash-2", OrderFixture::getOrder));
+    }
+
+    @Test
+    void should_hash_equal_requests_to_same_value() {
+        Assertions.assertEquals(OrderIdempotencyStore.requestHash(OrderFixture.getCreateOrderDto()),
+                                OrderIdempotencyStore.requestHash(OrderFixture.getCreateOrderDto()));
+        CreateOrderDto otherFlight = OrderFixture.getCreateOrderDto();
+        otherFlight.setFlight("MU2152");
+        Assertions.assertNotEquals(OrderIdempotencyStore.requestHash(OrderFixture.getCreateOrderDto()), OrderIdempotencyStore.requestHash(otherFlight));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
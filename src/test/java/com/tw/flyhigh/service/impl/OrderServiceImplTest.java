@@ -1,33 +1,69 @@
 package com.tw.flyhigh.service.impl;
 
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
 import com.tw.flyhigh.common.exception.BusinessException;
+import com.tw.flyhigh.common.exception.IdempotencyKeyReusedException;
+import com.tw.flyhigh.common.datasource.ReadYourWritesTracker;
+import com.tw.flyhigh.common.datasource.ReplicaRoutingContext;
 import com.tw.flyhigh.common.exception.NoMoreSeatException;
+import com.tw.flyhigh.common.exception.OrderStatusTransitionException;
+import com.tw.flyhigh.config.IdempotencyProperties;
+import com.tw.flyhigh.config.OrderDbExecutorProperties;
+import com.tw.flyhigh.config.ReadReplicaProperties;
+import com.tw.flyhigh.config.SeatBatchProperties;
+import com.tw.flyhigh.config.UserOrderCacheProperties;
+import com.tw.flyhigh.dto.BatchOrderResult;
+import com.tw.flyhigh.dto.CreateOrderDto;
+import com.tw.flyhigh.common.util.OrderCursor;
 import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.dto.OrderPage;
 import com.tw.flyhigh.dto.ReleaseSeatRequest;
 import com.tw.flyhigh.dto.ReserveSeatRequest;
+import com.tw.flyhigh.entity.OrderOutboxEntity;
 import com.tw.flyhigh.entity.TicketOrderEntity;
+import com.tw.flyhigh.integration.client.AsyncPriceSeatManagerClient;
+import com.tw.flyhigh.integration.client.FlightDetailCache;
 import com.tw.flyhigh.integration.client.PriceSeatManagerClient;
+import com.tw.flyhigh.integration.client.SeatQuotaLedger;
+import com.tw.flyhigh.integration.client.SeatReservationBatcher;
+import com.tw.flyhigh.integration.mq.CacheInvalidationBus;
+import com.tw.flyhigh.integration.mq.OrderMessageCodec;
+import com.tw.flyhigh.repository.OrderOutboxRepository;
+import com.tw.flyhigh.repository.OrderQueryRepository;
 import com.tw.flyhigh.repository.TicketOrderEventRepository;
 import com.tw.flyhigh.repository.TicketOrderRepository;
 import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.tw.flyhigh.OrderFixture.getCreateOrderDto;
 import static com.tw.flyhigh.OrderFixture.getOrder;
 import static com.tw.flyhigh.OrderFixture.getOrderEntity;
 import static com.tw.flyhigh.OrderFixture.getOrderEventEntity;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -41,8 +77,22 @@ class OrderServiceImplTest {
     @Spy
     PriceSeatManagerClient priceSeatManagerClient;
     @Mock
-    AmqpMessageServiceImpl amqpMessageServiceImpl;
-    @InjectMocks
+    AsyncPriceSeatManagerClient asyncPriceSeatManagerClient;
+    @Mock
+    SeatQuotaLedger seatQuotaLedger;
+    @Mock
+    OrderOutboxRepository orderOutboxRepository;
+    @Mock
+    OrderQueryRepository orderQueryRepository;
+    @Mock
+    FlightDetailCache flightDetailCache;
+    @Mock
+    OrderExpiryWheel orderExpiryWheel;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    UserOrderCache userOrderCache;
+    SeatReservationBatcher seatReservationBatcher;
+    OrderDbExecutor orderDbExecutor;
     OrderServiceImpl orderServiceImpl;
 
     @Captor
@@ -54,9 +104,28 @@ class OrderServiceImplTest {
     @Captor
     ArgumentCaptor<TicketOrderEntity> order;
 
+    @Captor
+    ArgumentCaptor<OrderOutboxEntity> outbox;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
+        seatReservationBatcher = new SeatReservationBatcher(priceSeatManagerClient, new SeatBatchProperties(), new SimpleMeterRegistry());
+        orderDbExecutor = new OrderDbExecutor(new OrderDbExecutorProperties());
+        UserOrderCacheProperties userOrderCacheProperties = new UserOrderCacheProperties();
+        userOrderCacheProperties.setEnabled(true);
+        userOrderCache = new UserOrderCache(userOrderCacheProperties, new SimpleMeterRegistry(), mock(CacheInvalidationBus.class));
+        orderServiceImpl = new OrderServiceImpl(orderRepositorySpy, orderEventRepositorySpy, priceSeatManagerClient, asyncPriceSeatManagerClient, seatQuotaLedger,
+                                                seatReservationBatcher,
+                                                orderOutboxRepository, new OrderMessageCodec("json"), new OrderIdempotencyStore(new IdempotencyProperties()), orderQueryRepository,
+                                                flightDetailCache, userOrderCache, new ReadYourWritesTracker(new ReadReplicaProperties()), orderExpiryWheel, orderDbExecutor,
+                                                transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        seatReservationBatcher.shutdown();
+        orderDbExecutor.shutdown();
     }
 
     @Test
@@ -75,6 +144,312 @@ class OrderServiceImplTest {
         Assertions.assertEquals("张三", order.getValue().getContactName());
     }
 
+    @Test
+    void create_order_and_write_created_event_to_outbox_in_same_transaction() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+
+        orderServiceImpl.createOrder(getCreateOrderDto());
+
+        verify(transactionManager).commit(any());
+        verify(orderOutboxRepository).save(outbox.capture());
+        String payload = new String(outbox.getValue().getPayload(), StandardCharsets.UTF_8);
+        Assertions.assertEquals(OrderMessageCodec.CONTENT_TYPE_JSON, outbox.getValue().getContentType());
+        Assertions.assertTrue(payload.contains("\"status\":\"CREATED\""));
+        Assertions.assertTrue(payload.contains("\"flight\":\"MU2151\""));
+    }
+
+    @Test
+    void create_order_from_local_seat_quota_without_calling_seat_manager_server() {
+        when(seatQuotaLedger.tryAcquire("MU2151", "FIRST", 1)).thenReturn(true);
+
+        Order result = orderServiceImpl.createOrder(getCreateOrderDto());
+        Assertions.assertEquals(getOrder(), result);
+
+        verify(priceSeatManagerClient, never()).reserveSeat(any());
+        verify(orderRepositorySpy).save(any());
+        verify(flightDetailCache, never()).invalidate(any());
+    }
+
+    @Test
+    void invalidate_flight_detail_after_reserving_seat_on_seat_manager_server() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+
+        orderServiceImpl.createOrder(getCreateOrderDto());
+
+        verify(flightDetailCache).invalidate("MU2151");
+    }
+
+    @Test
+    void create_order_once_for_repeated_idempotency_key() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+        when(orderRepositorySpy.findByUserIdAndIdempotencyKey(12L, "key-1")).thenReturn(Optional.empty());
+
+        Order first = orderServiceImpl.createOrder(getCreateOrderDto(), "key-1");
+        Order second = orderServiceImpl.createOrder(getCreateOrderDto(), "key-1");
+
+        Assertions.assertSame(first, second);
+        verify(priceSeatManagerClient, times(1)).reserveSeat(any());
+        verify(orderRepositorySpy, times(1)).save(order.capture());
+        Assertions.assertEquals("key-1", order.getValue().getIdempotencyKey());
+    }
+
+    @Test
+    void return_existing_order_on_duplicate_idempotency_key_even_if_seat_release_fails() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setStatus("CREATED");
+        persisted.setIdempotencyKey("key-1");
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+        when(priceSeatManagerClient.releaseSeat(any())).thenReturn(false);
+        when(orderRepositorySpy.findByUserIdAndIdempotencyKey(12L, "key-1")).thenReturn(Optional.empty(), Optional.of(persisted));
+        when(orderRepositorySpy.save(any())).thenThrow(new DataIntegrityViolationException("uk_ticket_order_user_idempotency"));
+
+        Order result = orderServiceImpl.createOrder(getCreateOrderDto(), "key-1");
+
+        Assertions.assertEquals("MU2151", result.getFlight());
+        verify(priceSeatManagerClient).releaseSeat(any());
+    }
+
+    @Test
+    void reject_idempotency_key_reused_for_different_request() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setIdempotencyKey("key-1");
+        persisted.setIdempotencyRequestHash("another-request");
+        when(orderRepositorySpy.findByUserIdAndIdempotencyKey(12L, "key-1")).thenReturn(Optional.of(persisted));
+
+        Assertions.assertThrows(IdempotencyKeyReusedException.class, () -> orderServiceImpl.createOrder(getCreateOrderDto(), "key-1"));
+        verify(priceSeatManagerClient, never()).reserveSeat(any());
+    }
+
+    @Test
+    void return_persisted_order_for_idempotency_key_without_reserving_seat() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setStatus("CREATED");
+        persisted.setIdempotencyKey("key-1");
+        when(orderRepositorySpy.findByUserIdAndIdempotencyKey(12L, "key-1")).thenReturn(Optional.of(persisted));
+
+        Order result = orderServiceImpl.createOrder(getCreateOrderDto(), "key-1");
+
+        Assertions.assertEquals("MU2151", result.getFlight());
+        verify(priceSeatManagerClient, never()).reserveSeat(any());
+        verify(orderRepositorySpy, never()).save(any());
+    }
+
+    @Test
+    void create_order_async_builds_order_while_seat_reservation_is_in_flight() {
+        CompletableFuture<Boolean> reservation = new CompletableFuture<>();
+        when(asyncPriceSeatManagerClient.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 1))).thenReturn(reservation);
+
+        CompletableFuture<Order> result = orderServiceImpl.createOrderAsync(getCreateOrderDto(), null);
+
+        Assertions.assertFalse(result.isDone());
+        verify(orderRepositorySpy, never()).save(any());
+        reservation.complete(true);
+        Assertions.assertEquals(getOrder(), result.join());
+        verify(orderRepositorySpy).save(any());
+        verify(priceSeatManagerClient, never()).reserveSeat(any());
+    }
+
+    @Test
+    void create_order_async_fails_when_no_more_seat() {
+        when(asyncPriceSeatManagerClient.reserveSeat(any())).thenReturn(CompletableFuture.completedFuture(false));
+
+        CompletionException exception = Assertions.assertThrows(CompletionException.class,
+                                                                () -> orderServiceImpl.createOrderAsync(getCreateOrderDto(), null).join());
+
+        Assertions.assertTrue(exception.getCause() instanceof NoMoreSeatException);
+        verify(orderRepositorySpy, never()).save(any());
+    }
+
+    @Test
+    void create_order_async_fails_when_seat_reservation_result_is_empty() {
+        when(asyncPriceSeatManagerClient.reserveSeat(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        CompletionException exception = Assertions.assertThrows(CompletionException.class,
+                                                                () -> orderServiceImpl.createOrderAsync(getCreateOrderDto(), null).join());
+
+        Assertions.assertTrue(exception.getCause() instanceof NoMoreSeatException);
+        verify(orderRepositorySpy, never()).save(any());
+    }
+
+    @Test
+    void create_order_async_queries_and_saves_on_db_executor() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        when(orderRepositorySpy.findByUserIdAndIdempotencyKey(12L, "key-1")).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return Optional.empty();
+        });
+        when(orderRepositorySpy.save(any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return invocation.getArgument(0);
+        });
+        when(asyncPriceSeatManagerClient.reserveSeat(any())).thenReturn(CompletableFuture.completedFuture(true));
+
+        orderServiceImpl.createOrderAsync(getCreateOrderDto(), "key-1").join();
+
+        Assertions.assertEquals(2, threads.size());
+        threads.forEach(thread -> Assertions.assertTrue(thread.startsWith("order-db-"), thread));
+    }
+
+    @Test
+    void create_order_async_returns_persisted_order_for_idempotency_key() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setStatus("CREATED");
+        persisted.setIdempotencyKey("key-1");
+        when(orderRepositorySpy.findByUserIdAndIdempotencyKey(12L, "key-1")).thenReturn(Optional.of(persisted));
+
+        Order result = orderServiceImpl.createOrderAsync(getCreateOrderDto(), "key-1").join();
+
+        Assertions.assertEquals("MU2151", result.getFlight());
+        verify(asyncPriceSeatManagerClient, never()).reserveSeat(any());
+    }
+
+    @Test
+    void create_orders_in_batch_with_one_seat_reservation_per_flight() {
+        CreateOrderDto otherFlight = getCreateOrderDto();
+        otherFlight.setFlight("MU2152");
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+
+        List<BatchOrderResult> results = orderServiceImpl.createOrders(Arrays.asList(getCreateOrderDto(), otherFlight, getCreateOrderDto()));
+
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertTrue(results.stream().allMatch(result -> BatchOrderResult.CREATED.equals(result.getStatus())));
+        Assertions.assertEquals("MU2152", results.get(1).getOrder().getFlight());
+        verify(priceSeatManagerClient).reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 2));
+        verify(priceSeatManagerClient).reserveSeat(new ReserveSeatRequest("MU2152", "FIRST", 1));
+        verify(orderRepositorySpy, times(1)).saveAll(anyList());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void create_orders_in_batch_reserving_one_by_one_when_flight_cannot_seat_all() {
+        CreateOrderDto twoPassengers = getCreateOrderDto();
+        twoPassengers.getPassengerDtoList().add(getCreateOrderDto().getPassengerDtoList().get(0));
+        when(priceSeatManagerClient.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 3))).thenReturn(false);
+        when(priceSeatManagerClient.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 1))).thenReturn(true);
+        when(priceSeatManagerClient.reserveSeat(new ReserveSeatRequest("MU2151", "FIRST", 2))).thenReturn(false);
+
+        List<BatchOrderResult> results = orderServiceImpl.createOrders(Arrays.asList(getCreateOrderDto(), twoPassengers));
+
+        Assertions.assertEquals(BatchOrderResult.CREATED, results.get(0).getStatus());
+        Assertions.assertEquals(BatchOrderResult.FAILED, results.get(1).getStatus());
+        Assertions.assertEquals("10009", results.get(1).getErrorCode());
+    }
+
+    @Test
+    void change_status_appends_event_and_writes_outbox() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setId(1L);
+        persisted.setStatus("CREATED");
+        when(orderRepositorySpy.findById(1L)).thenReturn(Optional.of(persisted));
+        when(orderRepositorySpy.compareAndSetStatus(1L, "CREATED", "PAID")).thenReturn(1);
+
+        Order result = orderServiceImpl.changeStatus(1L, OrderStatusEnum.PAID);
+
+        Assertions.assertEquals("PAID", result.getStatus());
+        Assertions.assertEquals("PAID", result.getOrderEventList().get(0).getStatus());
+        Assertions.assertEquals(2, result.getOrderEventList().size());
+        verify(orderEventRepositorySpy).save(any());
+        verify(orderOutboxRepository).save(outbox.capture());
+        Assertions.assertTrue(new String(outbox.getValue().getPayload(), StandardCharsets.UTF_8).contains("\"status\":\"PAID\""));
+    }
+
+    @Test
+    void change_status_rejects_transition_not_in_table() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setStatus("CREATED");
+        when(orderRepositorySpy.findById(1L)).thenReturn(Optional.of(persisted));
+
+        Assertions.assertThrows(OrderStatusTransitionException.class, () -> orderServiceImpl.changeStatus(1L, OrderStatusEnum.BOARDED));
+        verify(orderRepositorySpy, never()).compareAndSetStatus(any(), any(), any());
+    }
+
+    @Test
+    void change_status_gives_up_when_status_changed_concurrently() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setStatus("CREATED");
+        when(orderRepositorySpy.findById(1L)).thenReturn(Optional.of(persisted));
+        when(orderRepositorySpy.compareAndSetStatus(1L, "CREATED", "PAID")).thenReturn(0);
+
+        Assertions.assertThrows(OrderStatusTransitionException.class, () -> orderServiceImpl.changeStatus(1L, OrderStatusEnum.PAID));
+        verify(orderEventRepositorySpy, never()).save(any());
+        verify(orderOutboxRepository, never()).save(any());
+    }
+
+    @Test
+    void create_order_schedules_payment_deadline() {
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+
+        orderServiceImpl.createOrder(getCreateOrderDto());
+
+        verify(orderExpiryWheel).schedule(any(), any());
+    }
+
+    @Test
+    void cancel_order_changes_status_and_releases_seats() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setId(1L);
+        persisted.setStatus("CREATED");
+        when(orderRepositorySpy.findById(1L)).thenReturn(Optional.of(persisted));
+        when(orderRepositorySpy.compareAndSetStatus(1L, "CREATED", "CANCELED")).thenReturn(1);
+        when(priceSeatManagerClient.releaseSeat(any())).thenReturn(true);
+
+        Order canceled = orderServiceImpl.cancelOrder(1L);
+
+        Assertions.assertEquals("CANCELED", canceled.getStatus());
+        verify(priceSeatManagerClient).releaseSeat(releaseRequestCaptor.capture());
+        Assertions.assertEquals("MU2151", releaseRequestCaptor.getValue().getFlight());
+        Assertions.assertEquals(1, releaseRequestCaptor.getValue().getNumber());
+        verify(flightDetailCache).invalidate("MU2151");
+    }
+
+    @Test
+    void cancel_paid_order_is_rejected_without_releasing_seats() {
+        TicketOrderEntity persisted = getOrderEntity();
+        persisted.setStatus("PAID");
+        when(orderRepositorySpy.findById(1L)).thenReturn(Optional.of(persisted));
+
+        Assertions.assertThrows(OrderStatusTransitionException.class, () -> orderServiceImpl.cancelOrder(1L));
+        verify(priceSeatManagerClient, never()).releaseSeat(any());
+    }
+
+    @Test
+    void get_orders_page_after_decoded_cursor_with_page_size_capped() {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2022, 3, 10, 8, 0), 2L);
+        OrderPage page = OrderPage.builder().orders(Arrays.asList(getOrder())).build();
+        when(orderQueryRepository.findPage(12L, cursor, 100)).thenReturn(page);
+
+        Assertions.assertSame(page, orderServiceImpl.getOrders(12L, cursor.encode(), 1000));
+        verify(orderRepositorySpy, never()).findByUserId(any());
+    }
+
+    @Test
+    void serve_first_page_from_user_cache_until_user_creates_order() {
+        OrderPage page = OrderPage.builder().orders(Arrays.asList(getOrder())).build();
+        when(orderQueryRepository.findPage(12L, null, 20)).thenReturn(page);
+        when(priceSeatManagerClient.reserveSeat(any())).thenReturn(true);
+
+        orderServiceImpl.getOrders(12L, null, 20);
+        orderServiceImpl.getOrders(12L, null, 20);
+        verify(orderQueryRepository, times(1)).findPage(12L, null, 20);
+
+        orderServiceImpl.createOrder(getCreateOrderDto());
+        orderServiceImpl.getOrders(12L, null, 20);
+        verify(orderQueryRepository, times(2)).findPage(12L, null, 20);
+    }
+
+    @Test
+    void load_cached_first_page_from_primary() {
+        OrderPage page = OrderPage.builder().orders(Arrays.asList(getOrder())).build();
+        AtomicBoolean primaryForced = new AtomicBoolean();
+        when(orderQueryRepository.findPage(12L, null, 20)).thenAnswer(invocation -> {
+            primaryForced.set(ReplicaRoutingContext.isPrimaryForced());
+            return page;
+        });
+
+        Assertions.assertSame(page, orderServiceImpl.getOrders(12L, null, 20));
+        Assertions.assertTrue(primaryForced.get());
+    }
+
     @Test
     void should_throw_exception_when_seat_manager_server_to_reserve_seat_and_no_more_seat() {
         when(priceSeatManagerClient.reserveSeat(any())).thenReturn(false);
@@ -0,0 +1,98 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.common.enums.OrderStatusEnum;
+import com.tw.flyhigh.common.exception.OrderStatusTransitionException;
+import com.tw.flyhigh.dto.Order;
+import com.tw.flyhigh.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderStatusEngineTest {
+    private OrderService orderService;
+    private OrderStatusEngine orderStatusEngine;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        orderStatusEngine = new OrderStatusEngine(orderService, new SimpleMeterRegistry(), 4, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        orderStatusEngine.shutdown();
+    }
+
+    @Test
+    void should_apply_events_of_same_order_in_submission_order() {
+        Map<Long, List<OrderStatusEnum>> applied = new ConcurrentHashMap<>();
+        when(orderService.changeStatus(any(), any())).thenAnswer(invocation -> {
+            applied.computeIfAbsent(invocation.getArgument(0), id -> new ArrayList<>()).add(invocation.getArgument(1));
+            return new Order();
+        });
+
+        List<CompletableFuture<Order>> results = new ArrayList<>();
+        OrderStatusEnum[] lifecycle = {OrderStatusEnum.PAID, OrderStatusEnum.SEAT_CONFIRMED, OrderStatusEnum.SECURITY_CHECKED,
+            OrderStatusEnum.BOARDED, OrderStatusEnum.FINISHED};
+        for (OrderStatusEnum status : lifecycle) {
+            for (long orderId = 1; orderId <= 20; orderId++) {
+                results.add(orderStatusEngine.submit(orderId, status));
+            }
+        }
+        results.forEach(CompletableFuture::join);
+
+        Assertions.assertEquals(20, applied.size());
+        applied.values().forEach(statuses -> Assertions.assertArrayEquals(lifecycle, statuses.toArray()));
+    }
+
+    @Test
+    void should_apply_events_of_different_orders_in_parallel() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        when(orderService.changeStatus(eq(0L), any())).thenAnswer(invocation -> {
+            blocked.await(5, TimeUnit.SECONDS);
+            return new Order();
+        });
+        when(orderService.changeStatus(eq(1L), any())).thenReturn(new Order());
+
+        CompletableFuture<Order> slow = orderStatusEngine.submit(0L, OrderStatusEnum.PAID);
+        CompletableFuture<Order> other = orderStatusEngine.submit(1L, OrderStatusEnum.PAID);
+
+        other.join();
+        Assertions.assertFalse(slow.isDone());
+        blocked.countDown();
+        slow.join();
+    }
+
+    @Test
+    void should_complete_exceptionally_when_transition_is_illegal() {
+        when(orderService.changeStatus(1L, OrderStatusEnum.BOARDED)).thenThrow(new OrderStatusTransitionException("illegal"));
+
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> orderStatusEngine.submit(1L, OrderStatusEnum.BOARDED).join());
+        Assertions.assertTrue(e.getCause() instanceof OrderStatusTransitionException);
+    }
+
+    @Test
+    void should_only_allow_transitions_in_table() {
+        Assertions.assertTrue(OrderStatusTransitions.canTransit(OrderStatusEnum.CREATED, OrderStatusEnum.PAID));
+        Assertions.assertTrue(OrderStatusTransitions.canTransit(OrderStatusEnum.CREATED, OrderStatusEnum.CANCELED));
+        Assertions.assertFalse(OrderStatusTransitions.canTransit(OrderStatusEnum.CREATED, OrderStatusEnum.BOARDED));
+        Assertions.assertFalse(OrderStatusTransitions.canTransit(OrderStatusEnum.CANCELED, OrderStatusEnum.PAID));
+        Assertions.assertFalse(OrderStatusTransitions.canTransit(OrderStatusEnum.INVOICED, OrderStatusEnum.FINISHED));
+    }
+}
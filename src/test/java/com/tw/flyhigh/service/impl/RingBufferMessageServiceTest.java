@@ -0,0 +1,134 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.common.exception.OrderOverloadException;
+import com.tw.flyhigh.config.MessageBusProperties;
+import com.tw.flyhigh.dto.EncodedMessage;
+import com.tw.flyhigh.service.OrderMessageConsumer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class RingBufferMessageServiceTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RingBufferMessageService messageService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (messageService != null) {
+            messageService.shutdown();
+        }
+    }
+
+    @Test
+    void should_refuse_to_start_without_consumers() {
+        MessageBusProperties properties = properties(16, MessageBusProperties.WaitStrategy.BLOCKING);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> new RingBufferMessageService(properties, Collections.emptyList(), meterRegistry));
+    }
+
+    @Test
+    void should_deliver_every_message_in_order_to_each_consumer() throws InterruptedException {
+        RecordingConsumer first = new RecordingConsumer();
+        RecordingConsumer second = new RecordingConsumer();
+        messageService = new RingBufferMessageService(properties(16, MessageBusProperties.WaitStrategy.BLOCKING), Arrays.asList(first, second), meterRegistry);
+
+        List<EncodedMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            messages.add(message(String.valueOf(i)));
+        }
+        messageService.sendMsgs(messages.subList(0, 50));
+        messages.subList(50, 100).forEach(messageService::sendMsg);
+        messageService.shutdown();
+
+        Assertions.assertEquals(messages, first.received);
+        Assertions.assertEquals(messages, second.received);
+        Assertions.assertEquals(100.0, meterRegistry.get("order.message-bus.published").counter().count());
+    }
+
+    @Test
+    void should_hand_consumer_at_most_max_batch_size_messages() throws InterruptedException {
+        RecordingConsumer consumer = new RecordingConsumer();
+        MessageBusProperties properties = properties(64, MessageBusProperties.WaitStrategy.SLEEPING);
+        properties.setMaxBatchSize(4);
+        messageService = new RingBufferMessageService(properties, Collections.singletonList(consumer), meterRegistry);
+
+        List<EncodedMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            messages.add(message(String.valueOf(i)));
+        }
+        messageService.sendMsgs(messages);
+        messageService.shutdown();
+
+        Assertions.assertEquals(40, consumer.received.size());
+        Assertions.assertTrue(meterRegistry.get("order.message-bus.batch.size").summary().max() <= 4);
+    }
+
+    @Test
+    void should_reject_publish_when_slow_consumer_keeps_buffer_full() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        OrderMessageConsumer blocked = messages -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        messageService = new RingBufferMessageService(properties(4, MessageBusProperties.WaitStrategy.YIELDING), Collections.singletonList(blocked), meterRegistry);
+
+        for (int i = 0; i < 4; i++) {
+            messageService.sendMsg(message(String.valueOf(i)));
+        }
+
+        Assertions.assertThrows(OrderOverloadException.class, () -> messageService.sendMsg(message("overflow")));
+        release.countDown();
+    }
+
+    @Test
+    void should_keep_consuming_after_consumer_throws() throws InterruptedException {
+        RecordingConsumer consumer = new RecordingConsumer();
+        OrderMessageConsumer failing = messages -> {
+            throw new IllegalStateException("consumer down");
+        };
+        messageService = new RingBufferMessageService(properties(16, MessageBusProperties.WaitStrategy.BLOCKING), Arrays.asList(failing, consumer), meterRegistry);
+
+        messageService.sendMsg(message("a"));
+        messageService.sendMsg(message("b"));
+        messageService.shutdown();
+
+        Assertions.assertEquals(2, consumer.received.size());
+        Assertions.assertTrue(meterRegistry.get("order.message-bus.consumer.failures").counter().count() >= 1);
+    }
+
+    private MessageBusProperties properties(int bufferSize, MessageBusProperties.WaitStrategy waitStrategy) {
+        MessageBusProperties properties = new MessageBusProperties();
+        properties.setType("ring-buffer");
+        properties.setBufferSize(bufferSize);
+        properties.setWaitStrategy(waitStrategy);
+        properties.setPublishTimeout(Duration.ofMillis(100));
+        return properties;
+    }
+
+    private EncodedMessage message(String payload) {
+        return new EncodedMessage("application/json", payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class RecordingConsumer implements OrderMessageConsumer {
+        private final List<EncodedMessage> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onMessages(List<EncodedMessage> messages) {
+            received.addAll(messages);
+        }
+    }
+}
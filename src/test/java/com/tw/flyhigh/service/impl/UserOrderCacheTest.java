@@ -0,0 +1,90 @@
+package com.tw.flyhigh.service.impl;
+
+import com.tw.flyhigh.OrderFixture;
+import com.tw.flyhigh.config.UserOrderCacheProperties;
+import com.tw.flyhigh.dto.OrderPage;
+import com.tw.flyhigh.integration.mq.CacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+class UserOrderCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void should_load_once_and_serve_cached_page() {
+        UserOrderCache userOrderCache = cache(true, DataSize.ofMegabytes(1));
+
+        OrderPage first = userOrderCache.get(12L, 20, this::load);
+        OrderPage second = userOrderCache.get(12L, 20, this::load);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    void should_reload_for_different_page_size() {
+        UserOrderCache userOrderCache = cache(true, DataSize.ofMegabytes(1));
+
+        userOrderCache.get(12L, 20, this::load);
+        userOrderCache.get(12L, 10, this::load);
+
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void should_not_cache_page_read_while_user_orders_changed() {
+        UserOrderCache userOrderCache = cache(true, DataSize.ofMegabytes(1));
+
+        userOrderCache.get(12L, 20, () -> {
+            userOrderCache.invalidate(12L);
+            return load();
+        });
+        userOrderCache.get(12L, 20, this::load);
+
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void should_evict_pages_beyond_memory_limit() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserOrderCacheProperties properties = new UserOrderCacheProperties();
+        properties.setEnabled(true);
+        properties.setMaxMemory(DataSize.ofBytes(4096));
+        UserOrderCache userOrderCache = new UserOrderCache(properties, meterRegistry, mock(CacheInvalidationBus.class));
+
+        for (long userId = 0; userId < 10; userId++) {
+            userOrderCache.get(userId, 20, this::load);
+        }
+
+        Assertions.assertTrue(meterRegistry.get("cache.evictions").tag("cache", "user.orders").functionCounter().count() > 0);
+    }
+
+    @Test
+    void should_bypass_cache_when_disabled() {
+        UserOrderCache userOrderCache = cache(false, DataSize.ofMegabytes(1));
+
+        userOrderCache.get(12L, 20, this::load);
+        userOrderCache.get(12L, 20, this::load);
+
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    private UserOrderCache cache(boolean enabled, DataSize maxMemory) {
+        UserOrderCacheProperties properties = new UserOrderCacheProperties();
+        properties.setEnabled(enabled);
+        properties.setMaxMemory(maxMemory);
+        return new UserOrderCache(properties, new SimpleMeterRegistry(), mock(CacheInvalidationBus.class));
+    }
+
+    private OrderPage load() {
+        loads.incrementAndGet();
+        return OrderPage.builder().orders(Collections.singletonList(OrderFixture.getOrder())).build();
+    }
+}
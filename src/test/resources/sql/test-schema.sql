@@ -7,9 +7,15 @@ create table ticket_order
 	contact_mobile varchar(15) not null,
 	contact_name varchar(20) not null,
 	status varchar(30) not null,
+	idempotency_key varchar(64) null,
+	idempotency_request_hash char(64) null,
 	created_at datetime not null
 );
 
+create unique index uk_ticket_order_user_idempotency on ticket_order (user_id, idempotency_key);
+create index idx_ticket_order_user_created on ticket_order (user_id, created_at, id);
+create index idx_ticket_order_status on ticket_order (status, id);
+
 create table ticket_order_event
 (
 	id bigint auto_increment primary key,
@@ -58,3 +64,27 @@ create table plane_ticket_event
 	status varchar(30) not null,
 	created_at datetime not null
 );
+
+create table order_outbox
+(
+	id bigint auto_increment primary key,
+	order_id bigint not null,
+	content_type varchar(64) not null default 'application/json',
+	payload blob not null,
+	created_at datetime not null
+);
+
+create table id_block
+(
+	segment_name varchar(255) not null primary key,
+	next_val bigint not null
+);
+
+create table relay_lease
+(
+	name varchar(64) not null primary key,
+	owner varchar(64) null,
+	lease_until datetime(3) not null
+);
+
+insert into relay_lease (name, owner, lease_until) values ('order-outbox', null, '1970-01-01 00:00:01');